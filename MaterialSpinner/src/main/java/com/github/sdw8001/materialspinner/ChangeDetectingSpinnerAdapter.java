@@ -0,0 +1,166 @@
+package com.github.sdw8001.materialspinner;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.widget.BaseAdapter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Base adapter taking whole new lists of items, which are checked for
+ * changes against the current one on a background thread before being
+ * applied on the main thread. Nothing is notified when the new list shows
+ * the same items with the same contents, and the ids of the
+ * {@link ItemCallback} are stable, so that a spinner keeps its selected
+ * item when it moves in the list.
+ * <p>
+ * This is change detection, not a diff: no insertions, removals or moves are
+ * computed, since an AdapterView has no notification finer than
+ * {@link #notifyDataSetChanged()}. A changed list is notified as a whole.
+ * </p>
+ * <p>
+ * Subclasses only implement {@link #getView(int, android.view.View, android.view.ViewGroup)},
+ * reading the items with {@link #getItem(int)}. Must be used from the main thread.
+ * </p>
+ *
+ * @param <T> The type of the items
+ */
+public abstract class ChangeDetectingSpinnerAdapter<T> extends BaseAdapter {
+
+    /**
+     * Identity and contents of the items, used to tell whether a list changed.
+     */
+    public static abstract class ItemCallback<T> {
+
+        /**
+         * @return whether both items stand for the same object, typically comparing their ids
+         */
+        public abstract boolean areItemsTheSame(T oldItem, T newItem);
+
+        /**
+         * Called only for the same items, see {@link #areItemsTheSame(Object, Object)}.
+         *
+         * @return whether both items are displayed the same way
+         */
+        public abstract boolean areContentsTheSame(T oldItem, T newItem);
+
+        /**
+         * @return the stable id of the item, the same for the same items
+         */
+        public abstract long getItemId(T item);
+    }
+
+    private final ItemCallback<T> mCallback;
+    private final Executor mExecutor;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private List<T> mItems = Collections.emptyList();
+    //Bumped by each submitted list, the check of an older one is dropped
+    private int mGeneration;
+
+    public ChangeDetectingSpinnerAdapter(ItemCallback<T> callback) {
+        this(callback, AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /**
+     * @param callback The identity and contents of the items
+     * @param executor The executor checking the lists for changes
+     */
+    public ChangeDetectingSpinnerAdapter(ItemCallback<T> callback, Executor executor) {
+        mCallback = callback;
+        mExecutor = executor;
+    }
+
+    public void submitList(List<T> items) {
+        submitList(items, null);
+    }
+
+    /**
+     * Replaces the items. The list is copied, later changes to it are not seen.
+     *
+     * @param items The new items, null for none
+     * @param commitCallback Run on the main thread once the list is applied, or dropped for a newer one
+     */
+    public void submitList(List<T> items, final Runnable commitCallback) {
+        final int generation = ++mGeneration;
+        final List<T> oldItems = mItems;
+        final List<T> newItems = items != null ? Collections.unmodifiableList(new ArrayList<>(items)) : Collections.<T>emptyList();
+
+        if (oldItems.isEmpty() || newItems.isEmpty()) {
+            //Nothing to check
+            apply(newItems, !oldItems.isEmpty() || !newItems.isEmpty(), commitCallback);
+            return;
+        }
+
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final boolean changed = !isSameList(oldItems, newItems);
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mGeneration) {
+                            apply(newItems, changed, commitCallback);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * @return the current items, unmodifiable
+     */
+    public List<T> getItems() {
+        return mItems;
+    }
+
+    @Override
+    public int getCount() {
+        return mItems.size();
+    }
+
+    @Override
+    public T getItem(int position) {
+        return mItems.get(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return mCallback.getItemId(mItems.get(position));
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return true;
+    }
+
+    private void apply(List<T> items, boolean changed, Runnable commitCallback) {
+        mItems = items;
+        if (changed) {
+            //AdapterView has no finer notification, it resolves the selection again by id
+            notifyDataSetChanged();
+        }
+        if (commitCallback != null) {
+            commitCallback.run();
+        }
+    }
+
+    private boolean isSameList(List<T> oldItems, List<T> newItems) {
+        if (oldItems.size() != newItems.size()) {
+            return false;
+        }
+        for (int i = 0; i < oldItems.size(); i++) {
+            T oldItem = oldItems.get(i);
+            T newItem = newItems.get(i);
+            if (!mCallback.areItemsTheSame(oldItem, newItem) || !mCallback.areContentsTheSame(oldItem, newItem)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.sdw8001.materialspinner;
+
+import android.support.v4.util.LruCache;
+import android.text.Layout;
+import android.text.Spanned;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+
+/**
+ * Bounded cache of the {@link StaticLayout}s of the error labels, shared
+ * by every {@link MaterialSpinner}. Forms usually toggle the same few
+ * messages on spinners of the same width, so a layout is built once per
+ * (text, width, text size, typeface).
+ * <p>
+ * Cached layouts are built with a copy of the caller's paint, shared by the
+ * spinners showing the same error: callers must set the color on
+ * {@link StaticLayout#getPaint()} before drawing.
+ * </p>
+ */
+public final class ErrorLayoutCache {
+
+    private static final int MAX_SIZE = 32;
+
+    private static final LruCache<LayoutKey, StaticLayout> sLayouts = new LruCache<>(MAX_SIZE);
+
+    private ErrorLayoutCache() {
+    }
+
+    /**
+     * Returns the layout of the given error text, building it on a miss.
+     * Styled texts are not cached, their spans would not be part of the key.
+     */
+    static StaticLayout obtain(CharSequence text, TextPaint paint, int width) {
+        if (text instanceof Spanned) {
+            return build(text, paint, width);
+        }
+        LayoutKey key = new LayoutKey(text.toString(), width, paint.getTextSize(), paint.getTypeface());
+        StaticLayout layout = sLayouts.get(key);
+        if (layout == null) {
+            //From the key's copy, the caller may change a mutable text afterwards
+            layout = build(key.text, copy(paint), width);
+            sLayouts.put(key, layout);
+        }
+        return layout;
+    }
+
+    private static StaticLayout build(CharSequence text, TextPaint paint, int width) {
+        return new StaticLayout(text, paint, width, Layout.Alignment.ALIGN_NORMAL, 1.0f, 0.0f, true);
+    }
+
+    private static TextPaint copy(TextPaint paint) {
+        TextPaint copy = new TextPaint();
+        copy.set(paint);
+        return copy;
+    }
+
+    /**
+     * @return the number of lookups served from the cache
+     */
+    public static int getHitCount() {
+        return sLayouts.hitCount();
+    }
+
+    /**
+     * @return the number of lookups which had to build a layout
+     */
+    public static int getMissCount() {
+        return sLayouts.missCount();
+    }
+
+    /**
+     * @return the share of lookups served from the cache, between 0 and 1
+     */
+    public static float getHitRate() {
+        int hits = sLayouts.hitCount();
+        int lookups = hits + sLayouts.missCount();
+        return lookups == 0 ? 0f : (float) hits / lookups;
+    }
+
+    /**
+     * Drops every cached layout.
+     */
+    public static void clear() {
+        sLayouts.evictAll();
+    }
+}
@@ -463,6 +463,24 @@ public class LabelledSpinner extends LinearLayout implements AdapterView.OnItemS
             mErrorLabel.setVisibility(GONE);
     }
 
+    public boolean isSearchable() {
+        return ((SearchableSpinner) mSpinner).isSearchable();
+    }
+
+    /**
+     * Sets whether clicking the Spinner opens a dialog with a search
+     * field over its items instead of the dropdown. This is meant for
+     * long lists, where scrolling to an item is impractical. The items
+     * are matched on their {@code toString()}, or on the labels of a
+     * {@link SpinnerLabelProvider} adapter, and indexed on a background
+     * thread the first time the dialog is opened.
+     *
+     * @param searchable Whether or not the items can be searched.
+     */
+    public void setSearchable(boolean searchable) {
+        ((SearchableSpinner) mSpinner).setSearchable(searchable);
+    }
+
     public boolean ismDefaultDividerEnabled() {
         return mDefaultDividerEnabled;
     }
@@ -0,0 +1,49 @@
+package com.github.sdw8001.materialspinner;
+
+import android.graphics.Typeface;
+
+/**
+ * Key of the text layouts shared by {@link ErrorLayoutCache} and
+ * {@link TextLayoutCache}: a layout can be reused for the same text laid
+ * out at the same width with the same text size and typeface.
+ * <p>
+ * The typeface is compared by identity, typefaces being shared through
+ * {@link TypefaceCache}.
+ * </p>
+ */
+final class LayoutKey {
+
+    final String text;
+    private final int width;
+    private final float textSize;
+    private final Typeface typeface;
+
+    LayoutKey(String text, int width, float textSize, Typeface typeface) {
+        this.text = text;
+        this.width = width;
+        this.textSize = textSize;
+        this.typeface = typeface;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof LayoutKey)) {
+            return false;
+        }
+        LayoutKey key = (LayoutKey) o;
+        return width == key.width && Float.compare(textSize, key.textSize) == 0
+                && typeface == key.typeface && text.equals(key.text);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = text.hashCode();
+        result = 31 * result + width;
+        result = 31 * result + Float.floatToIntBits(textSize);
+        result = 31 * result + System.identityHashCode(typeface);
+        return result;
+    }
+}
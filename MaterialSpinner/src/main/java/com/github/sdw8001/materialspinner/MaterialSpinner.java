@@ -4,24 +4,28 @@ import android.animation.ObjectAnimator;
 import android.animation.ValueAnimator;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.database.DataSetObserver;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
-import android.graphics.Paint;
-import android.graphics.Path;
-import android.graphics.Point;
+import android.graphics.Color;
 import android.graphics.Typeface;
 import android.os.Build;
-import android.support.v4.content.ContextCompat;
+import android.support.v4.os.TraceCompat;
+import android.support.v4.view.ViewCompat;
 import android.support.v7.widget.AppCompatSpinner;
-import android.text.Layout;
 import android.text.StaticLayout;
-import android.text.TextPaint;
+import android.text.TextUtils;
 import android.util.AttributeSet;
 import android.util.DisplayMetrics;
+import android.util.Property;
 import android.util.TypedValue;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
+import android.view.SoundEffectConstants;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.view.animation.AnimationUtils;
 import android.view.animation.LinearInterpolator;
 import android.widget.AdapterView;
 import android.widget.BaseAdapter;
@@ -36,17 +40,58 @@ import android.widget.TextView;
 public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.AnimatorUpdateListener {
 
     public static final int DEFAULT_ARROW_WIDTH_DP = 12;
+    public static final int DEFAULT_ERROR_SCROLL_FRAME_RATE = 30;
+
+    //Hint modes, @see #setHintMode(int)
+    public static final int HINT_MODE_ROW = 0;
+    public static final int HINT_MODE_OVERLAY = 1;
+
+    //Operations traced and reported to the PerformanceListener, @see #setPerformanceListener(PerformanceListener)
+    public static final int OPERATION_DRAW = 0;
+    public static final int OPERATION_SET_ADAPTER = 1;
+    public static final int OPERATION_SET_ERROR = 2;
+    public static final int OPERATION_ERROR_LAYOUT = 3;
+    public static final int OPERATION_OPEN_DROPDOWN = 4;
+
+    //Names of the trace sections, by operation
+    private static final String[] TRACE_SECTIONS = {
+            "MaterialSpinner#onDraw",
+            "MaterialSpinner#setAdapter",
+            "MaterialSpinner#setError",
+            "MaterialSpinner#errorLayout",
+            "MaterialSpinner#openDropDown"
+    };
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+
+    //Beyond this width the error text is not cached in a bitmap (max texture size of most GPUs)
+    private static final int MAX_ERROR_SCROLL_LAYER_WIDTH = 2048;
 
     private static final String TAG = MaterialSpinner.class.getSimpleName();
 
-    //Paint objects
-    private Paint paint;
-    private TextPaint textPaint;
-    private StaticLayout staticLayout;
+    //Regions redrawn by invalidateRegions(int)
+    private static final int DIRTY_UNDERLINE = 1;
+    private static final int DIRTY_LABEL = 1 << 1;
+    private static final int DIRTY_ARROW = 1 << 2;
+    private static final int DIRTY_ERROR = 1 << 3;
 
+    /**
+     * Receives the duration of the expensive operations of a spinner, to attribute
+     * dropped frames to a spinner and an operation. Called on the main thread, right
+     * after the operation: implementations should only record the numbers.
+     */
+    public interface PerformanceListener {
+
+        /**
+         * @param operation One of the OPERATION_ constants. OPERATION_SET_ERROR is reported when
+         *                  the error is applied, it includes OPERATION_ERROR_LAYOUT
+         * @param durationNanos The duration of the operation
+         */
+        void onOperation(MaterialSpinner spinner, int operation, long durationNanos);
+    }
 
-    private Path selectorPath;
-    private Point[] selectorPoints;
+    //Paint objects and geometry, shared with the spinners of the same style
+    private SpinnerStyle style;
+    private StaticLayout staticLayout;
 
     //Inner padding = "Normal" android padding
     private int innerPaddingLeft;
@@ -58,22 +103,26 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
     private int extraPaddingTop;
     private int extraPaddingBottom;
 
-    //@see dimens.xml
-    private int underlineTopSpacing;
-    private int underlineBottomSpacing;
-    private int errorLabelSpacing;
-    private int floatingLabelTopSpacing;
-    private int floatingLabelBottomSpacing;
-    private int floatingLabelInsideSpacing;
+    //@see dimens.xml, the others are held by the shared style
     private int rightLeftSpinnerPadding;
-    private int minContentHeight;
 
     //Properties about Error Label
     private int lastPosition;
     private ObjectAnimator errorLabelAnimator;
     private int errorLabelPosX;
     private int minErrorLines;
-    private float currentErrorLines;
+    private int currentErrorLines;
+    private float errorRevealPercent;
+    private int errorScrollFrameRate;
+    private long lastErrorScrollFrameTime;
+    private boolean errorScrollLayerEnabled;
+    private Bitmap errorScrollLayer;
+
+    //Properties about the selector arrow
+    private boolean animateArrow;
+    private boolean arrowOpen;
+    private float arrowRotation;
+    private ObjectAnimator arrowAnimator;
 
 
     //Properties about Floating Label (
@@ -83,6 +132,10 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
     private boolean floatingLabelVisible;
     private int baseAlpha;
 
+    //Animators only run while the spinner can be seen, see updateAnimatorsState()
+    private boolean attached;
+    private boolean animatorsVisible;
+
 
     //AttributeSet
     private int baseColor;
@@ -105,8 +158,46 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
     private boolean enableFloatingLabel;
     private boolean enableUnderLine;
     private boolean isRtl;
+    private int hintMode;
+    private boolean searchable;
+
+    //Draw state, resolved by updateDrawState() so that onDraw only reads it
+    private int underlineThicknessPx;
+    private int underlineHighlightThicknessPx;
+    private int underlineErrorThicknessPx;
+    private int selectorOffsetY;
+    private String errorText;
+    private float errorTextWidth;
+    private String labelText;
+    private float labelPosX;
+    private String hintText;
+    private float hintPosX;
+
+    //In HINT_MODE_OVERLAY, the hint is drawn instead of the selected view until an item is selected
+    private boolean hintOverlayVisible;
 
     private HintAdapter hintAdapter;
+    //While set, getAdapter() hands the hint adapter to AdapterView, see onLayout()
+    private boolean exposeHintAdapter;
+
+    //Dialog replacing the dropdown when searchable, created on the first click
+    private SpinnerSearch search;
+
+    //Selection scheduled by setSelection(int), see SelectionRunnable
+    private int pendingSelection;
+    private boolean selectionScheduled;
+    private final Runnable selectionRunnable = new SelectionRunnable();
+
+    //Error requested by setError(), applied by ErrorTransitionRunnable on the next frame
+    private CharSequence requestedError;
+    private boolean errorTransitionScheduled;
+    private final Runnable errorTransitionRunnable = new ErrorTransitionRunnable();
+
+    //Counters of SpinnerMetrics, null unless it was enabled when the spinner was created
+    private SpinnerMetrics metrics;
+
+    //Operations are only timed while a listener is set, they are traced anyway
+    private PerformanceListener performanceListener;
 
     /*
     * **********************************************************************************
@@ -139,106 +230,204 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
 
     private void init(Context context, AttributeSet attrs) {
 
-        initAttributes(context, attrs);
-        initPaintObjects();
-        initDimensions();
+        metrics = SpinnerMetrics.register(this);
+        ResolvedStyle resolvedStyle = ResolvedStyle.obtain(context, attrs != null ? attrs.getStyleAttribute() : 0);
+        initAttributes(context, attrs, resolvedStyle);
+        initPaintObjects(resolvedStyle);
+        initDimensions(resolvedStyle);
+        initDrawState();
         initPadding();
-        initFloatingLabelAnimator();
         initOnItemSelectedListener();
-        setMinimumHeight(getPaddingTop() + getPaddingBottom() + minContentHeight);
+        setMinimumHeight(getPaddingTop() + getPaddingBottom() + style.minContentHeight);
         //Erase the drawable selector not to be affected by new size (extra paddings)
         setBackgroundResource(R.drawable.my_background);
 
     }
 
-    private final static int[] DEFAULT_SPINNER_COLORS = new int[]{R.attr.colorControlNormal, R.attr.colorAccent};
-    private final static int INDEX_COLOR_CONTROL_NORMAL = 0;
-    private final static int INDEX_COLOR_ACCENT = 1;
-
-    private void initAttributes(Context context, AttributeSet attrs) {
-
-        TypedArray defaultArray = context.obtainStyledAttributes(DEFAULT_SPINNER_COLORS);
-        int defaultBaseColor = defaultArray.getColor(INDEX_COLOR_CONTROL_NORMAL, 0);
-        int defaultHighlightColor = defaultArray.getColor(INDEX_COLOR_ACCENT, 0);
-        int defaultErrorColor = ContextCompat.getColor(context, R.color.error_color);
-        defaultArray.recycle();
-
-        TypedArray array = context.obtainStyledAttributes(attrs, R.styleable.MaterialSpinner);
-        baseColor = array.getColor(R.styleable.MaterialSpinner_s_baseColor, defaultBaseColor);
-        highlightColor = array.getColor(R.styleable.MaterialSpinner_s_highlightColor, defaultHighlightColor);
-        errorColor = array.getColor(R.styleable.MaterialSpinner_s_errorColor, defaultErrorColor);
-        disabledColor = context.getResources().getColor(R.color.disabled_color);
-        error = array.getString(R.styleable.MaterialSpinner_s_error);
-        hint = array.getString(R.styleable.MaterialSpinner_s_hint);
-        hintColor = array.getColor(R.styleable.MaterialSpinner_s_hintColor, baseColor);
-        floatingLabelText = array.getString(R.styleable.MaterialSpinner_s_floatingLabelText);
-        floatingLabelColor = array.getColor(R.styleable.MaterialSpinner_s_floatingLabelColor, baseColor);
-        multiline = array.getBoolean(R.styleable.MaterialSpinner_s_multiline, true);
-        minErrorLines = array.getInt(R.styleable.MaterialSpinner_s_errorLines, 1);
-        alignLabels = array.getBoolean(R.styleable.MaterialSpinner_s_alignLabels, true);
-        thickness = array.getDimension(R.styleable.MaterialSpinner_s_thickness, 1);
-        thicknessError = array.getDimension(R.styleable.MaterialSpinner_s_thickness_error, 2);
-        arrowColor = array.getColor(R.styleable.MaterialSpinner_s_arrowColor, baseColor);
-        arrowSize = array.getDimension(R.styleable.MaterialSpinner_s_arrowSize, dpToPx(DEFAULT_ARROW_WIDTH_DP));
-        enableErrorLabel = array.getBoolean(R.styleable.MaterialSpinner_s_enableErrorLabel, true);
-        enableUnderLine = array.getBoolean(R.styleable.MaterialSpinner_s_enableUnderLine, true);
-        enableFloatingLabel = array.getBoolean(R.styleable.MaterialSpinner_s_enableFloatingLabel, true);
-        isRtl = array.getBoolean(R.styleable.MaterialSpinner_s_isRtl, false);
-
-        String typefacePath = array.getString(R.styleable.MaterialSpinner_s_typeface);
-        if (typefacePath != null) {
-            typeface = Typeface.createFromAsset(getContext().getAssets(), typefacePath);
+    private void initAttributes(Context context, AttributeSet attrs, ResolvedStyle resolvedStyle) {
+
+        baseColor = resolvedStyle.baseColor;
+        highlightColor = resolvedStyle.highlightColor;
+        errorColor = resolvedStyle.errorColor;
+        disabledColor = resolvedStyle.disabledColor;
+        error = resolvedStyle.error;
+        hint = resolvedStyle.hint;
+        hintColor = resolvedStyle.hintColor;
+        floatingLabelText = resolvedStyle.floatingLabelText;
+        floatingLabelColor = resolvedStyle.floatingLabelColor;
+        multiline = resolvedStyle.multiline;
+        minErrorLines = resolvedStyle.errorLines;
+        alignLabels = resolvedStyle.alignLabels;
+        thickness = resolvedStyle.thickness;
+        thicknessError = resolvedStyle.thicknessError;
+        arrowColor = resolvedStyle.arrowColor;
+        arrowSize = resolvedStyle.arrowSize;
+        enableErrorLabel = resolvedStyle.enableErrorLabel;
+        enableUnderLine = resolvedStyle.enableUnderLine;
+        enableFloatingLabel = resolvedStyle.enableFloatingLabel;
+        isRtl = resolvedStyle.isRtl;
+        errorScrollFrameRate = resolvedStyle.errorScrollFrameRate;
+        errorScrollLayerEnabled = resolvedStyle.errorScrollLayer;
+        animateArrow = resolvedStyle.animateArrow;
+        hintMode = resolvedStyle.hintMode;
+        searchable = resolvedStyle.searchable;
+        String typefacePath = resolvedStyle.typefacePath;
+
+        //Colors defaulting to the base color follow it unless they are set themselves
+        boolean hasHintColor = resolvedStyle.hasHintColor;
+        boolean hasFloatingLabelColor = resolvedStyle.hasFloatingLabelColor;
+        boolean hasArrowColor = resolvedStyle.hasArrowColor;
+
+        if (hasSpinnerAttributes(attrs)) {
+            //Only the attributes set on this view are read, the others come from the shared style
+            TypedArray array = context.obtainStyledAttributes(attrs, R.styleable.MaterialSpinner);
+            for (int i = 0; i < array.getIndexCount(); i++) {
+                int attr = array.getIndex(i);
+                if (attr == R.styleable.MaterialSpinner_s_baseColor) {
+                    baseColor = array.getColor(attr, baseColor);
+                } else if (attr == R.styleable.MaterialSpinner_s_highlightColor) {
+                    highlightColor = array.getColor(attr, highlightColor);
+                } else if (attr == R.styleable.MaterialSpinner_s_errorColor) {
+                    errorColor = array.getColor(attr, errorColor);
+                } else if (attr == R.styleable.MaterialSpinner_s_error) {
+                    error = array.getString(attr);
+                } else if (attr == R.styleable.MaterialSpinner_s_hint) {
+                    hint = array.getString(attr);
+                } else if (attr == R.styleable.MaterialSpinner_s_hintColor) {
+                    hintColor = array.getColor(attr, hintColor);
+                    hasHintColor = true;
+                } else if (attr == R.styleable.MaterialSpinner_s_floatingLabelText) {
+                    floatingLabelText = array.getString(attr);
+                } else if (attr == R.styleable.MaterialSpinner_s_floatingLabelColor) {
+                    floatingLabelColor = array.getColor(attr, floatingLabelColor);
+                    hasFloatingLabelColor = true;
+                } else if (attr == R.styleable.MaterialSpinner_s_multiline) {
+                    multiline = array.getBoolean(attr, multiline);
+                } else if (attr == R.styleable.MaterialSpinner_s_errorLines) {
+                    minErrorLines = array.getInt(attr, minErrorLines);
+                } else if (attr == R.styleable.MaterialSpinner_s_typeface) {
+                    typefacePath = array.getString(attr);
+                } else if (attr == R.styleable.MaterialSpinner_s_alignLabels) {
+                    alignLabels = array.getBoolean(attr, alignLabels);
+                } else if (attr == R.styleable.MaterialSpinner_s_thickness) {
+                    thickness = array.getDimension(attr, thickness);
+                } else if (attr == R.styleable.MaterialSpinner_s_thickness_error) {
+                    thicknessError = array.getDimension(attr, thicknessError);
+                } else if (attr == R.styleable.MaterialSpinner_s_arrowColor) {
+                    arrowColor = array.getColor(attr, arrowColor);
+                    hasArrowColor = true;
+                } else if (attr == R.styleable.MaterialSpinner_s_arrowSize) {
+                    arrowSize = array.getDimension(attr, arrowSize);
+                } else if (attr == R.styleable.MaterialSpinner_s_enableErrorLabel) {
+                    enableErrorLabel = array.getBoolean(attr, enableErrorLabel);
+                } else if (attr == R.styleable.MaterialSpinner_s_enableUnderLine) {
+                    enableUnderLine = array.getBoolean(attr, enableUnderLine);
+                } else if (attr == R.styleable.MaterialSpinner_s_enableFloatingLabel) {
+                    enableFloatingLabel = array.getBoolean(attr, enableFloatingLabel);
+                } else if (attr == R.styleable.MaterialSpinner_s_isRtl) {
+                    isRtl = array.getBoolean(attr, isRtl);
+                } else if (attr == R.styleable.MaterialSpinner_s_errorScrollFrameRate) {
+                    errorScrollFrameRate = array.getInt(attr, errorScrollFrameRate);
+                } else if (attr == R.styleable.MaterialSpinner_s_errorScrollLayer) {
+                    errorScrollLayerEnabled = array.getBoolean(attr, errorScrollLayerEnabled);
+                } else if (attr == R.styleable.MaterialSpinner_s_animateArrow) {
+                    animateArrow = array.getBoolean(attr, animateArrow);
+                } else if (attr == R.styleable.MaterialSpinner_s_hintMode) {
+                    hintMode = array.getInt(attr, hintMode);
+                } else if (attr == R.styleable.MaterialSpinner_s_searchable) {
+                    searchable = array.getBoolean(attr, searchable);
+                }
+            }
+            array.recycle();
         }
 
-        array.recycle();
+        if (!hasHintColor) {
+            hintColor = baseColor;
+        }
+        if (!hasFloatingLabelColor) {
+            floatingLabelColor = baseColor;
+        }
+        if (!hasArrowColor) {
+            arrowColor = baseColor;
+        }
+        if (typefacePath != null) {
+            typeface = TypefaceCache.get(context, typefacePath);
+        }
 
         floatingLabelPercent = 0f;
         errorLabelPosX = 0;
         isSelected = false;
         floatingLabelVisible = false;
         lastPosition = -1;
+        hintOverlayVisible = true;
         currentErrorLines = minErrorLines;
+        errorRevealPercent = 1f;
 
     }
 
-
-    @Override
-    public void setSelection(final int position) {
-        this.post(new Runnable() {
-            @Override
-            public void run() {
-                MaterialSpinner.super.setSelection(position);
+    private static boolean hasSpinnerAttributes(AttributeSet attrs) {
+        if (attrs == null) {
+            return false;
+        }
+        for (int i = 0; i < attrs.getAttributeCount(); i++) {
+            int nameResource = attrs.getAttributeNameResource(i);
+            for (int attr : R.styleable.MaterialSpinner) {
+                if (attr == nameResource) {
+                    return true;
+                }
             }
-        });
+        }
+        return false;
     }
 
-    private void initPaintObjects() {
-
-        int labelTextSize = getResources().getDimensionPixelSize(R.dimen.label_text_size);
 
-        paint = new Paint(Paint.ANTI_ALIAS_FLAG);
-
-        textPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
-        textPaint.setTextSize(labelTextSize);
-        if (typeface != null) {
-            textPaint.setTypeface(typeface);
+    /**
+     * Selects the position right away once the spinner is laid out. Before that, calls are
+     * collapsed into a single selection applied on the next frame, the last one winning.
+     */
+    @Override
+    public void setSelection(int position) {
+        if (isHintOverlayShown()) {
+            hintOverlayVisible = false;
+            invalidate();
+            if (position == super.getSelectedItemPosition()) {
+                //The hint covered this position, selecting it is a change for the listener
+                dispatchItemSelected(position);
+            }
+        }
+        if (!selectionScheduled && getWidth() > 0 && !isLayoutRequested()) {
+            super.setSelection(position);
+            return;
         }
-        textPaint.setColor(baseColor);
-        baseAlpha = textPaint.getAlpha();
+        pendingSelection = position;
+        if (!selectionScheduled && selectionRunnable != null) {
+            selectionScheduled = true;
+            ViewCompat.postOnAnimation(this, selectionRunnable);
+        } else if (selectionRunnable == null) {
+            //Called from the super constructor, before the fields are initialised
+            super.setSelection(position);
+        }
+    }
 
-        selectorPath = new Path();
-        selectorPath.setFillType(Path.FillType.EVEN_ODD);
+    private void initPaintObjects(ResolvedStyle resolvedStyle) {
+        style = SpinnerStyle.obtain(resolvedStyle, typeface, arrowSize);
+        baseAlpha = Color.alpha(baseColor);
+    }
 
-        selectorPoints = new Point[3];
-        for (int i = 0; i < 3; i++) {
-            selectorPoints[i] = new Point();
+    private void dispatchItemSelected(int position) {
+        OnItemSelectedListener listener = getOnItemSelectedListener();
+        if (listener != null) {
+            listener.onItemSelected(this, getSelectedView(), position, getItemIdAtPosition(position));
         }
     }
 
     @Override
     public int getSelectedItemPosition() {
+        if (isHintOverlayShown()) {
+            return INVALID_POSITION;
+        }
         int position = super.getSelectedItemPosition();
-        position = hint != null ? position - 1 : position;
+        position = hasHintRow() ? position - 1 : position;
         return position;
     }
 
@@ -254,29 +443,29 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
         innerPaddingRight = getPaddingRight();
         innerPaddingBottom = getPaddingBottom();
 
-        extraPaddingTop = enableFloatingLabel ? floatingLabelTopSpacing + floatingLabelInsideSpacing + floatingLabelBottomSpacing : floatingLabelBottomSpacing;
+        extraPaddingTop = enableFloatingLabel ? style.floatingLabelTopSpacing + style.floatingLabelInsideSpacing + style.floatingLabelBottomSpacing : style.floatingLabelBottomSpacing;
         updateBottomPadding();
     }
 
     private void updateBottomPadding() {
-        Paint.FontMetrics textMetrics = textPaint.getFontMetrics();
-        extraPaddingBottom = underlineTopSpacing + underlineBottomSpacing;
+        extraPaddingBottom = style.underlineTopSpacing + style.underlineBottomSpacing;
 
         if (enableErrorLabel) {
-            extraPaddingBottom += (int) ((textMetrics.descent - textMetrics.ascent) * currentErrorLines);
+            extraPaddingBottom += (int) (style.lineHeight * currentErrorLines);
         }
         updatePadding();
     }
 
-    private void initDimensions() {
-        underlineTopSpacing = getResources().getDimensionPixelSize(R.dimen.underline_top_spacing);
-        underlineBottomSpacing = getResources().getDimensionPixelSize(R.dimen.underline_bottom_spacing);
-        floatingLabelTopSpacing = getResources().getDimensionPixelSize(R.dimen.floating_label_top_spacing);
-        floatingLabelBottomSpacing = getResources().getDimensionPixelSize(R.dimen.floating_label_bottom_spacing);
-        rightLeftSpinnerPadding = alignLabels ? getResources().getDimensionPixelSize(R.dimen.right_left_spinner_padding) : 0;
-        floatingLabelInsideSpacing = getResources().getDimensionPixelSize(R.dimen.floating_label_inside_spacing);
-        errorLabelSpacing = (int) getResources().getDimension(R.dimen.error_label_spacing);
-        minContentHeight = (int) getResources().getDimension(R.dimen.min_content_height);
+    private void initDimensions(ResolvedStyle resolvedStyle) {
+        rightLeftSpinnerPadding = alignLabels ? resolvedStyle.rightLeftSpinnerPadding : 0;
+    }
+
+    private void initDrawState() {
+        underlineThicknessPx = dpToPx(thickness);
+        underlineHighlightThicknessPx = dpToPx(thickness + 1);
+        underlineErrorThicknessPx = dpToPx(thicknessError);
+        selectorOffsetY = dpToPx(8);
+        updateDrawState();
     }
 
     private void initOnItemSelectedListener() {
@@ -289,58 +478,224 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
     * **********************************************************************************
     */
 
-    private void initFloatingLabelAnimator() {
+    //Typed properties, so that the animators do not look up the setters by reflection
+    private static final Property<MaterialSpinner, Float> FLOATING_LABEL_PERCENT = new Property<MaterialSpinner, Float>(Float.class, "floatingLabelPercent") {
+        @Override
+        public Float get(MaterialSpinner spinner) {
+            return spinner.floatingLabelPercent;
+        }
+
+        @Override
+        public void set(MaterialSpinner spinner, Float value) {
+            spinner.floatingLabelPercent = value;
+        }
+    };
+
+    private static final Property<MaterialSpinner, Integer> ERROR_LABEL_POS_X = new Property<MaterialSpinner, Integer>(Integer.class, "errorLabelPosX") {
+        @Override
+        public Integer get(MaterialSpinner spinner) {
+            return spinner.errorLabelPosX;
+        }
+
+        @Override
+        public void set(MaterialSpinner spinner, Integer value) {
+            spinner.errorLabelPosX = value;
+        }
+    };
+
+    private static final Property<MaterialSpinner, Float> ERROR_REVEAL_PERCENT = new Property<MaterialSpinner, Float>(Float.class, "errorRevealPercent") {
+        @Override
+        public Float get(MaterialSpinner spinner) {
+            return spinner.errorRevealPercent;
+        }
+
+        @Override
+        public void set(MaterialSpinner spinner, Float value) {
+            spinner.errorRevealPercent = value;
+        }
+    };
+
+    private static final Property<MaterialSpinner, Float> ARROW_ROTATION = new Property<MaterialSpinner, Float>(Float.class, "arrowRotation") {
+        @Override
+        public Float get(MaterialSpinner spinner) {
+            return spinner.arrowRotation;
+        }
+
+        @Override
+        public void set(MaterialSpinner spinner, Float value) {
+            spinner.arrowRotation = value;
+        }
+    };
+
+    private static final LinearInterpolator LINEAR_INTERPOLATOR = new LinearInterpolator();
+
+    /**
+     * The floating label animator is only created for spinners that show a floating label.
+     */
+    private ObjectAnimator getFloatingLabelAnimator() {
         if (floatingLabelAnimator == null) {
-            floatingLabelAnimator = ObjectAnimator.ofFloat(this, "floatingLabelPercent", 0f, 1f);
+            floatingLabelAnimator = ObjectAnimator.ofFloat(this, FLOATING_LABEL_PERCENT, 0f, 1f);
             floatingLabelAnimator.addUpdateListener(this);
         }
+        return floatingLabelAnimator;
     }
 
     private void showFloatingLabel() {
-        if (floatingLabelAnimator != null) {
-            floatingLabelVisible = true;
-            if (floatingLabelAnimator.isRunning()) {
-                floatingLabelAnimator.reverse();
+        floatingLabelVisible = true;
+        if (enableFloatingLabel) {
+            ObjectAnimator animator = getFloatingLabelAnimator();
+            if (animator.isRunning()) {
+                animator.reverse();
             } else {
-                floatingLabelAnimator.start();
+                animator.start();
+            }
+            if (!animatorsVisible) {
+                animator.end();
             }
         }
     }
 
     private void hideFloatingLabel() {
+        floatingLabelVisible = false;
         if (floatingLabelAnimator != null) {
-            floatingLabelVisible = false;
             floatingLabelAnimator.reverse();
+            if (!animatorsVisible) {
+                floatingLabelAnimator.end();
+            }
+        }
+    }
+
+    /**
+     * Turns the arrow up while the dropdown is open and back down when it closes. Only the
+     * canvas rotation changes, the arrow path itself is never rebuilt.
+     */
+    private void animateArrow(boolean open) {
+        if (open == arrowOpen) {
+            return;
+        }
+        arrowOpen = open;
+        if (!animateArrow) {
+            return;
+        }
+        if (arrowAnimator == null) {
+            arrowAnimator = ObjectAnimator.ofFloat(this, ARROW_ROTATION, 0f, 180f);
+            arrowAnimator.addUpdateListener(this);
+        }
+        if (open) {
+            arrowAnimator.start();
+        } else {
+            arrowAnimator.reverse();
+        }
+        if (!animatorsVisible) {
+            arrowAnimator.end();
         }
     }
 
     private void startErrorScrollingAnimator() {
 
-        int textWidth = Math.round(textPaint.measureText(error.toString()));
+        int textWidth = Math.round(errorTextWidth);
         if (errorLabelAnimator == null) {
-            errorLabelAnimator = ObjectAnimator.ofInt(this, "errorLabelPosX", 0, textWidth + getWidth() / 2);
+            errorLabelAnimator = ObjectAnimator.ofInt(this, ERROR_LABEL_POS_X, 0, textWidth + getWidth() / 2);
             errorLabelAnimator.setStartDelay(1000);
-            errorLabelAnimator.setInterpolator(new LinearInterpolator());
+            errorLabelAnimator.setInterpolator(LINEAR_INTERPOLATOR);
             errorLabelAnimator.setDuration(150 * error.length());
             errorLabelAnimator.addUpdateListener(this);
             errorLabelAnimator.setRepeatCount(ValueAnimator.INFINITE);
         } else {
             errorLabelAnimator.setIntValues(0, textWidth + getWidth() / 2);
         }
-        errorLabelAnimator.start();
+        updateErrorScrollLayer();
+        //Started by resumeAnimators() once the spinner is shown
+        if (animatorsVisible) {
+            errorLabelAnimator.start();
+        }
     }
 
 
-    private void startErrorMultilineAnimator(float destLines) {
+    /**
+     * Resolves the final number of error lines at once, so that showing an error costs a
+     * single layout pass, then reveals the error text with a clip animation that only redraws.
+     */
+    private void startErrorMultilineAnimator(int destLines) {
+        if (destLines != currentErrorLines) {
+            currentErrorLines = destLines;
+            updateBottomPadding();
+        }
+        if (error == null) {
+            return;
+        }
         if (errorLabelAnimator == null) {
-            errorLabelAnimator = ObjectAnimator.ofFloat(this, "currentErrorLines", destLines);
+            errorLabelAnimator = ObjectAnimator.ofFloat(this, ERROR_REVEAL_PERCENT, 0f, 1f);
+            errorLabelAnimator.addUpdateListener(this);
+        }
+        errorLabelAnimator.start();
+        if (!animatorsVisible) {
+            errorLabelAnimator.end();
+        }
+    }
 
+    /**
+     * Suspends the animators while the spinner cannot be seen (detached, hidden or in a
+     * hidden window) and restores them when it shows up again.
+     */
+    private void updateAnimatorsState() {
+        boolean visible = attached && getWindowVisibility() == VISIBLE && isShown();
+        if (visible == animatorsVisible) {
+            return;
+        }
+        animatorsVisible = visible;
+        if (visible) {
+            resumeAnimators();
         } else {
-            errorLabelAnimator.setFloatValues(destLines);
+            suspendAnimators();
         }
-        errorLabelAnimator.start();
     }
 
+    private void suspendAnimators() {
+        //One-shot animations jump to their final state
+        if (floatingLabelAnimator != null && floatingLabelAnimator.isRunning()) {
+            floatingLabelAnimator.end();
+        }
+        if (arrowAnimator != null && arrowAnimator.isRunning()) {
+            arrowAnimator.end();
+        }
+        if (errorLabelAnimator != null && errorLabelAnimator.isStarted()) {
+            if (multiline) {
+                errorLabelAnimator.end();
+            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+                errorLabelAnimator.pause();
+            } else {
+                errorLabelAnimator.cancel();
+            }
+        }
+    }
+
+    private void resumeAnimators() {
+        if (errorLabelAnimator == null || multiline || error == null) {
+            return;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT && errorLabelAnimator.isPaused()) {
+            errorLabelAnimator.resume();
+        } else if (!errorLabelAnimator.isStarted() && needScrollingAnimation()) {
+            errorLabelAnimator.start();
+        }
+    }
+
+
+    /**
+     * Renders the scrolling error once into a bitmap, so that each marquee frame is a plain
+     * bitmap translation (a texture move when hardware accelerated) instead of a text draw.
+     */
+    private void updateErrorScrollLayer() {
+        errorScrollLayer = null;
+        if (!errorScrollLayerEnabled || errorText == null || errorTextWidth <= 0 || errorTextWidth > MAX_ERROR_SCROLL_LAYER_WIDTH) {
+            return;
+        }
+        errorScrollLayer = Bitmap.createBitmap((int) Math.ceil(errorTextWidth), (int) Math.ceil(style.lineHeight), Bitmap.Config.ARGB_8888);
+        Canvas layerCanvas = new Canvas(errorScrollLayer);
+        style.textPaint.setColor(errorColor);
+        layerCanvas.drawText(errorText, 0, -style.ascent, style.textPaint);
+    }
 
     /*
      * **********************************************************************************
@@ -359,37 +714,134 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
         return px * displayMetrics.density;
     }
 
+    /**
+     * Resolves the text and positions drawn by {@link #onDraw(Canvas)}. Must be called
+     * whenever the size, the error or the label texts change.
+     */
+    private void updateDrawState() {
+        errorText = error != null ? error.toString() : null;
+        errorTextWidth = errorText != null ? style.textPaint.measureText(errorText) : 0;
+
+        CharSequence label = floatingLabelText != null ? floatingLabelText : hint;
+        labelText = label != null ? label.toString() : null;
+        if (labelText != null && isRtl) {
+            labelPosX = getWidth() - rightLeftSpinnerPadding - style.textPaint.measureText(labelText);
+        } else {
+            labelPosX = rightLeftSpinnerPadding;
+        }
+
+        hintText = hint != null ? hint.toString() : null;
+        if (hintText != null && isRtl) {
+            hintPosX = getWidth() - getPaddingRight() - rightLeftSpinnerPadding - style.hintPaint.measureText(hintText);
+        } else {
+            hintPosX = getPaddingLeft() + rightLeftSpinnerPadding;
+        }
+    }
+
     private void updatePadding() {
         int left = innerPaddingLeft;
         int top = innerPaddingTop + extraPaddingTop;
         int right = innerPaddingRight;
         int bottom = innerPaddingBottom + extraPaddingBottom;
+        if (left == getPaddingLeft() && top == getPaddingTop() && right == getPaddingRight() && bottom == getPaddingBottom()) {
+            return;
+        }
         super.setPadding(left, top, right, bottom);
-        setMinimumHeight(top + bottom + minContentHeight);
+        setMinimumHeight(top + bottom + style.minContentHeight);
+    }
+
+    /**
+     * Invalidates the bounds of the given DIRTY_* regions only, nothing when no region is dirty.
+     */
+    private void invalidateRegions(int dirty) {
+        if (dirty == 0) {
+            return;
+        }
+        int width = getWidth();
+        int underlineTop = getHeight() - getPaddingBottom() + style.underlineTopSpacing;
+        int top = Integer.MAX_VALUE;
+        int bottom = Integer.MIN_VALUE;
+        int left = 0;
+        int right = width;
+
+        if ((dirty & DIRTY_LABEL) != 0) {
+            //The label slides in the top padding, its descent may overlap the content
+            top = 0;
+            bottom = (int) Math.ceil(getPaddingTop() + style.lineHeight);
+        }
+        if ((dirty & DIRTY_ERROR) != 0) {
+            //The underline changes its thickness and color with the error
+            top = Math.min(top, underlineTop);
+            bottom = getHeight();
+        } else if ((dirty & DIRTY_UNDERLINE) != 0) {
+            top = Math.min(top, underlineTop);
+            bottom = Math.max(bottom, underlineTop + Math.max(underlineErrorThicknessPx,
+                    Math.max(underlineThicknessPx, underlineHighlightThicknessPx)));
+        }
+        if ((dirty & DIRTY_ARROW) != 0) {
+            //Large enough to hold the arrow at any rotation around its center
+            int size = (int) Math.ceil(arrowSize);
+            int centerX = width - rightLeftSpinnerPadding - size / 2;
+            int centerY = getPaddingTop() + selectorOffsetY + size / 4;
+            if (dirty == DIRTY_ARROW) {
+                left = centerX - size;
+                right = centerX + size;
+            }
+            top = Math.min(top, centerY - size);
+            bottom = Math.max(bottom, centerY + size);
+        }
+        invalidate(left, top, right, bottom);
     }
 
     private boolean needScrollingAnimation() {
         if (error != null) {
             float screenWidth = getWidth() - rightLeftSpinnerPadding;
-            float errorTextWidth = textPaint.measureText(error.toString(), 0, error.length());
             return errorTextWidth > screenWidth ? true : false;
         }
         return false;
     }
 
+    /**
+     * Resolves the layout of the error for the current width, or none until the spinner
+     * has been laid out (it is then resolved again by refreshErrorLayout()).
+     */
     private int prepareBottomPadding() {
 
         int targetNbLines = minErrorLines;
-        if (error != null) {
-            staticLayout = new StaticLayout(error, textPaint, getWidth() - getPaddingRight() - getPaddingLeft(), Layout.Alignment.ALIGN_NORMAL, 1.0f, 0.0f, true);
+        staticLayout = null;
+        int width = getWidth() - getPaddingRight() - getPaddingLeft();
+        if (error != null && width > 0) {
+            long start = beginOperation(OPERATION_ERROR_LAYOUT);
+            try {
+                staticLayout = ErrorLayoutCache.obtain(error, style.textPaint, width);
+            } finally {
+                endOperation(OPERATION_ERROR_LAYOUT, start);
+            }
             int nbErrorLines = staticLayout.getLineCount();
             targetNbLines = Math.max(minErrorLines, nbErrorLines);
         }
         return targetNbLines;
     }
 
+    private void refreshHintViews() {
+        if (hintAdapter != null) {
+            hintAdapter.refreshHintViews();
+        }
+    }
+
     private boolean isSpinnerEmpty() {
-        return (hintAdapter.getCount() == 0 && hint == null) || (hintAdapter.getCount() == 1 && hint != null);
+        return hintAdapter.getCount() == (hasHintRow() ? 1 : 0);
+    }
+
+    /**
+     * Whether the hint is the first row of the adapter, which shifts every position by one.
+     */
+    private boolean hasHintRow() {
+        return hint != null && hintMode == HINT_MODE_ROW;
+    }
+
+    private boolean isHintOverlayShown() {
+        return hintOverlayVisible && hint != null && hintMode == HINT_MODE_OVERLAY;
     }
 
     /*
@@ -399,99 +851,209 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
     */
 
 
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        attached = true;
+        updateAnimatorsState();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        attached = false;
+        updateAnimatorsState();
+        if (search != null) {
+            search.release();
+        }
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onVisibilityChanged(View changedView, int visibility) {
+        super.onVisibilityChanged(changedView, visibility);
+        updateAnimatorsState();
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+        updateAnimatorsState();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateDrawState();
+        if (w != oldw) {
+            precomputeRows();
+        }
+        refreshErrorLayout();
+    }
+
+    /**
+     * Lays the multiline error out again when the width available to its text changed,
+     * through the size or the horizontal padding, and updates the room made for it.
+     */
+    private void refreshErrorLayout() {
+        if (!multiline || error == null) {
+            return;
+        }
+        int width = getWidth() - getPaddingRight() - getPaddingLeft();
+        if (staticLayout != null && staticLayout.getWidth() == width) {
+            return;
+        }
+        int lines = prepareBottomPadding();
+        if (lines != currentErrorLines) {
+            currentErrorLines = lines;
+            updateBottomPadding();
+        }
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
+        long start = beginOperation(OPERATION_DRAW);
+        try {
+            drawSpinner(canvas);
+        } finally {
+            endOperation(OPERATION_DRAW, start);
+        }
+    }
 
+    private void drawSpinner(Canvas canvas) {
+
+        if (metrics != null) {
+            metrics.onDraw();
+        }
         super.onDraw(canvas);
+        if (isHintOverlayShown()) {
+            style.hintPaint.setColor(isEnabled() ? hintColor : disabledColor);
+            float centerY = (getPaddingTop() + getHeight() - getPaddingBottom()) / 2f;
+            canvas.drawText(hintText, hintPosX, centerY + style.hintBaselineOffset, style.hintPaint);
+        }
         int startX = 0;
         int endX = getWidth();
         int lineHeight;
 
-        int startYLine = getHeight() - getPaddingBottom() + underlineTopSpacing;
-        int startYFloatingLabel = (int) (getPaddingTop() - floatingLabelPercent * floatingLabelBottomSpacing);
+        int startYLine = getHeight() - getPaddingBottom() + style.underlineTopSpacing;
+        int startYFloatingLabel = (int) (getPaddingTop() - floatingLabelPercent * style.floatingLabelBottomSpacing);
 
 
         if (error != null && enableErrorLabel) {
-            lineHeight = dpToPx(thicknessError);
-            int startYErrorLabel = startYLine + errorLabelSpacing + lineHeight;
-            paint.setColor(errorColor);
-            textPaint.setColor(errorColor);
+            lineHeight = underlineErrorThicknessPx;
+            int startYErrorLabel = startYLine + style.errorLabelSpacing + lineHeight;
+            style.paint.setColor(errorColor);
+            style.textPaint.setColor(errorColor);
             //Error Label Drawing
             if (multiline) {
-                canvas.save();
-                canvas.translate(startX + rightLeftSpinnerPadding, startYErrorLabel - errorLabelSpacing);
-                staticLayout.draw(canvas);
-                canvas.restore();
+                //No layout until the spinner has a width
+                if (staticLayout != null) {
+                    //Cached layouts have a paint of their own, shared with other spinners
+                    staticLayout.getPaint().setColor(errorColor);
+                    canvas.save();
+                    canvas.translate(startX + rightLeftSpinnerPadding, startYErrorLabel - style.errorLabelSpacing);
+                    canvas.clipRect(0, 0, staticLayout.getWidth(), staticLayout.getHeight() * errorRevealPercent);
+                    staticLayout.draw(canvas);
+                    canvas.restore();
+                }
 
+            } else if (errorScrollLayer != null) {
+                //scrolling, from the cached text layer
+                float layerY = startYErrorLabel + style.ascent;
+                canvas.drawBitmap(errorScrollLayer, startX + rightLeftSpinnerPadding - errorLabelPosX, layerY, null);
+                if (errorLabelPosX > 0) {
+                    canvas.drawBitmap(errorScrollLayer, startX + rightLeftSpinnerPadding - errorLabelPosX + errorTextWidth + getWidth() / 2, layerY, null);
+                }
             } else {
                 //scrolling
-                canvas.drawText(error.toString(), startX + rightLeftSpinnerPadding - errorLabelPosX, startYErrorLabel, textPaint);
+                canvas.drawText(errorText, startX + rightLeftSpinnerPadding - errorLabelPosX, startYErrorLabel, style.textPaint);
                 if (errorLabelPosX > 0) {
                     canvas.save();
-                    canvas.translate(textPaint.measureText(error.toString()) + getWidth() / 2, 0);
-                    canvas.drawText(error.toString(), startX + rightLeftSpinnerPadding - errorLabelPosX, startYErrorLabel, textPaint);
+                    canvas.translate(errorTextWidth + getWidth() / 2, 0);
+                    canvas.drawText(errorText, startX + rightLeftSpinnerPadding - errorLabelPosX, startYErrorLabel, style.textPaint);
                     canvas.restore();
                 }
             }
 
         } else {
             if (isSelected || hasFocus()) {
-                paint.setColor(highlightColor);
-                lineHeight = dpToPx(thickness + 1);
+                style.paint.setColor(highlightColor);
+                lineHeight = underlineHighlightThicknessPx;
             } else {
-                paint.setColor(isEnabled() ? baseColor : disabledColor);
-                lineHeight = dpToPx(thickness);
+                style.paint.setColor(isEnabled() ? baseColor : disabledColor);
+                lineHeight = underlineThicknessPx;
             }
         }
 
         // Underline Drawing
         if (enableUnderLine)
-            canvas.drawRect(startX, startYLine, endX, startYLine + lineHeight, paint);
+            canvas.drawRect(startX, startYLine, endX, startYLine + lineHeight, style.paint);
 
         //Floating Label Drawing
         if ((hint != null || floatingLabelText != null) && enableFloatingLabel) {
             if (isSelected || hasFocus()) {
-                textPaint.setColor(highlightColor);
+                style.textPaint.setColor(highlightColor);
             } else {
-                textPaint.setColor(isEnabled() ? floatingLabelColor : disabledColor);
-            }
-            if (floatingLabelAnimator.isRunning() || !floatingLabelVisible) {
-                textPaint.setAlpha((int) ((0.8 * floatingLabelPercent + 0.2) * baseAlpha * floatingLabelPercent));
+                style.textPaint.setColor(isEnabled() ? floatingLabelColor : disabledColor);
             }
-            String textToDraw = floatingLabelText != null ? floatingLabelText.toString() : hint.toString();
-            if (isRtl) {
-                canvas.drawText(textToDraw, getWidth() - rightLeftSpinnerPadding - textPaint.measureText(textToDraw), startYFloatingLabel, textPaint);
-            } else {
-                canvas.drawText(textToDraw, startX + rightLeftSpinnerPadding, startYFloatingLabel, textPaint);
+            if ((floatingLabelAnimator != null && floatingLabelAnimator.isRunning()) || !floatingLabelVisible) {
+                style.textPaint.setAlpha((int) ((0.8 * floatingLabelPercent + 0.2) * baseAlpha * floatingLabelPercent));
             }
+            canvas.drawText(labelText, startX + labelPosX, startYFloatingLabel, style.textPaint);
         }
 
-        drawSelector(canvas, getWidth() - rightLeftSpinnerPadding, getPaddingTop() + dpToPx(8));
+        drawSelector(canvas, getWidth() - rightLeftSpinnerPadding, getPaddingTop() + selectorOffsetY);
 
 
     }
 
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        //The selected view stays laid out under the hint, it is just not drawn
+        if (!isHintOverlayShown()) {
+            super.dispatchDraw(canvas);
+        }
+    }
+
+    @Override
+    public void invalidate() {
+        if (metrics != null) {
+            metrics.onInvalidate();
+        }
+        super.invalidate();
+    }
+
+    @Override
+    public void invalidate(int l, int t, int r, int b) {
+        if (metrics != null) {
+            metrics.onInvalidate();
+        }
+        super.invalidate(l, t, r, b);
+    }
+
+    @Override
+    public void requestLayout() {
+        //Also called by the super constructor, before the counters exist
+        if (metrics != null) {
+            metrics.onLayoutRequest();
+        }
+        super.requestLayout();
+    }
+
     private void drawSelector(Canvas canvas, int posX, int posY) {
         if (isSelected || hasFocus()) {
-            paint.setColor(highlightColor);
+            style.paint.setColor(highlightColor);
         } else {
-            paint.setColor(isEnabled() ? arrowColor : disabledColor);
+            style.paint.setColor(isEnabled() ? arrowColor : disabledColor);
         }
 
-        Point point1 = selectorPoints[0];
-        Point point2 = selectorPoints[1];
-        Point point3 = selectorPoints[2];
-
-        point1.set(posX, posY);
-        point2.set((int) (posX - (arrowSize)), posY);
-        point3.set((int) (posX - (arrowSize / 2)), (int) (posY + (arrowSize / 2)));
-
-        selectorPath.reset();
-        selectorPath.moveTo(point1.x, point1.y);
-        selectorPath.lineTo(point2.x, point2.y);
-        selectorPath.lineTo(point3.x, point3.y);
-        selectorPath.close();
-        canvas.drawPath(selectorPath, paint);
+        canvas.save();
+        canvas.translate(posX, posY);
+        if (arrowRotation != 0) {
+            //Around the center of the arrow bounds, so that it stays in place
+            canvas.rotate(arrowRotation, -arrowSize / 2, arrowSize / 4);
+        }
+        canvas.drawPath(style.selectorPath, style.paint);
+        canvas.restore();
     }
 
     /*
@@ -500,24 +1062,81 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
      * **********************************************************************************
     */
 
+    @Override
+    public boolean performClick() {
+        long start = beginOperation(OPERATION_OPEN_DROPDOWN);
+        try {
+            return openDropDown();
+        } finally {
+            endOperation(OPERATION_OPEN_DROPDOWN, start);
+        }
+    }
+
+    private boolean openDropDown() {
+        if (searchable && hintAdapter != null && hintAdapter.getWrappedAdapter() != null) {
+            playSoundEffect(SoundEffectConstants.CLICK);
+            showSearch();
+            animateArrow(true);
+            return true;
+        }
+        boolean handled = super.performClick();
+        if (handled) {
+            animateArrow(true);
+        }
+        return handled;
+    }
+
+    private void showSearch() {
+        if (search == null) {
+            search = new SpinnerSearch(getContext());
+        }
+        search.show(hintAdapter.getWrappedAdapter(), new SpinnerSearch.OnItemChosenListener() {
+            @Override
+            public void onItemChosen(int position) {
+                setSelection(hasHintRow() ? position + 1 : position);
+            }
+        });
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasWindowFocus) {
+        super.onWindowFocusChanged(hasWindowFocus);
+        //The window gets the focus back once the dropdown is dismissed
+        if (hasWindowFocus) {
+            animateArrow(false);
+        }
+    }
+
     @Override
     public boolean onTouchEvent(MotionEvent event) {
         if (isEnabled()) {
             switch (event.getAction()) {
                 case MotionEvent.ACTION_DOWN:
-                    isSelected = true;
+                    setPressedState(true);
                     break;
 
                 case MotionEvent.ACTION_UP:
                 case MotionEvent.ACTION_CANCEL:
-                    isSelected = false;
+                    setPressedState(false);
                     break;
             }
-            invalidate();
         }
         return super.onTouchEvent(event);
     }
 
+    /**
+     * The underline, label and arrow take the highlight color while pressed, MOVE events change nothing.
+     */
+    private void setPressedState(boolean selected) {
+        if (isSelected == selected) {
+            return;
+        }
+        isSelected = selected;
+        if (!hasFocus()) {
+            invalidateRegions(DIRTY_UNDERLINE | DIRTY_LABEL | DIRTY_ARROW);
+        }
+    }
+
     @Override
     public void setOnItemSelectedListener(final OnItemSelectedListener listener) {
 
@@ -525,13 +1144,18 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
             @Override
             public void onItemSelected(AdapterView<?> adapterView, View view, int position, long id) {
 
+                if (isHintOverlayShown()) {
+                    //The initial position of AdapterView, hidden under the hint, is not a selection
+                    return;
+                }
+
                 if (hint != null || floatingLabelText != null) {
                     if (!floatingLabelVisible && position != -1) {
                         showFloatingLabel();
                     }
                 }
 
-                if (position != lastPosition && error != null) {
+                if (position != lastPosition && getError() != null) {
                     setError(null);
                 }
                 lastPosition = position;
@@ -559,7 +1183,29 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
 
     @Override
     public void onAnimationUpdate(ValueAnimator animation) {
-        invalidate();
+        if (metrics != null) {
+            metrics.onAnimatorFrame();
+        }
+        if (animation == floatingLabelAnimator) {
+            invalidateRegions(DIRTY_LABEL);
+            return;
+        }
+        if (animation == arrowAnimator) {
+            invalidateRegions(DIRTY_ARROW);
+            return;
+        }
+        if (animation != errorLabelAnimator) {
+            invalidate();
+            return;
+        }
+        if (!multiline && errorScrollFrameRate > 0) {
+            long now = AnimationUtils.currentAnimationTimeMillis();
+            if (now - lastErrorScrollFrameTime < 1000 / errorScrollFrameRate) {
+                return;
+            }
+            lastErrorScrollFrameTime = now;
+        }
+        invalidateRegions(DIRTY_ERROR);
     }
 
 
@@ -574,10 +1220,12 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
     }
 
     public void setBaseColor(int baseColor) {
+        if (this.baseColor == baseColor) {
+            return;
+        }
         this.baseColor = baseColor;
-        textPaint.setColor(baseColor);
-        baseAlpha = textPaint.getAlpha();
-        invalidate();
+        baseAlpha = Color.alpha(baseColor);
+        invalidateRegions(DIRTY_UNDERLINE | DIRTY_LABEL);
     }
 
     public int getHighlightColor() {
@@ -585,8 +1233,13 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
     }
 
     public void setHighlightColor(int highlightColor) {
+        if (this.highlightColor == highlightColor) {
+            return;
+        }
         this.highlightColor = highlightColor;
-        invalidate();
+        if (isSelected || hasFocus()) {
+            invalidateRegions(DIRTY_UNDERLINE | DIRTY_LABEL | DIRTY_ARROW);
+        }
     }
 
     public int getHintColor() {
@@ -594,8 +1247,15 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
     }
 
     public void setHintColor(int hintColor) {
+        if (this.hintColor == hintColor) {
+            return;
+        }
         this.hintColor = hintColor;
-        invalidate();
+        //Only the hint rows use it, they redraw themselves
+        refreshHintViews();
+        if (isHintOverlayShown()) {
+            invalidate();
+        }
     }
 
     public int getErrorColor() {
@@ -603,13 +1263,59 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
     }
 
     public void setErrorColor(int errorColor) {
+        if (this.errorColor == errorColor) {
+            return;
+        }
         this.errorColor = errorColor;
-        invalidate();
+        if (errorScrollLayer != null) {
+            updateErrorScrollLayer();
+        }
+        if (error != null && enableErrorLabel) {
+            invalidateRegions(DIRTY_ERROR);
+        }
+    }
+
+    public int getErrorScrollFrameRate() {
+        return errorScrollFrameRate;
+    }
+
+    /**
+     * Limits the frame rate of the scrolling error label.
+     *
+     * @param frameRate frames per second, 0 to redraw on every animation frame
+     */
+    public void setErrorScrollFrameRate(int frameRate) {
+        this.errorScrollFrameRate = frameRate;
+    }
+
+    public boolean isErrorScrollLayerEnabled() {
+        return errorScrollLayerEnabled;
+    }
+
+    /**
+     * Caches the scrolling error label in a bitmap which is only translated on each frame.
+     * Costs a bitmap of the error text size per spinner showing a scrolling error.
+     */
+    public void setErrorScrollLayerEnabled(boolean enabled) {
+        this.errorScrollLayerEnabled = enabled;
+        if (errorLabelAnimator != null && errorLabelAnimator.isRunning() && !multiline) {
+            updateErrorScrollLayer();
+            invalidateRegions(DIRTY_ERROR);
+        }
     }
 
     public void setHint(CharSequence hint) {
+        if (TextUtils.equals(this.hint, hint)) {
+            return;
+        }
         this.hint = hint;
-        invalidate();
+        updateDrawState();
+        refreshHintViews();
+        if (hintMode == HINT_MODE_OVERLAY && hintOverlayVisible) {
+            invalidate();
+        } else if (floatingLabelText == null) {
+            invalidateRegions(DIRTY_LABEL);
+        }
     }
 
     public void setHint(int resid) {
@@ -621,9 +1327,86 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
         return hint;
     }
 
+    /**
+     * @return the counters of this spinner, null if it was created while {@link SpinnerMetrics} was disabled
+     */
+    public SpinnerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Reports the duration of the drawing, adapter changes, error changes and dropdown
+     * openings of this spinner. They are traced as "MaterialSpinner#..." sections either way.
+     *
+     * @param listener The listener, null to stop timing the operations
+     */
+    public void setPerformanceListener(PerformanceListener listener) {
+        performanceListener = listener;
+    }
+
+    public PerformanceListener getPerformanceListener() {
+        return performanceListener;
+    }
+
+    private long beginOperation(int operation) {
+        TraceCompat.beginSection(TRACE_SECTIONS[operation]);
+        return performanceListener != null ? System.nanoTime() : NOT_TIMED;
+    }
+
+    private void endOperation(int operation, long start) {
+        TraceCompat.endSection();
+        //A listener set during the operation only gets the next ones
+        if (performanceListener != null && start != NOT_TIMED) {
+            performanceListener.onOperation(this, operation, System.nanoTime() - start);
+        }
+    }
+
+    public boolean isSearchable() {
+        return searchable;
+    }
+
+    /**
+     * Opens a dialog with a search field over the items instead of the dropdown, for long lists.
+     * The items are matched on their {@code toString()}, indexed in the background on the first click.
+     *
+     * @attr ref R.styleable#MaterialSpinner_s_searchable
+     */
+    public void setSearchable(boolean searchable) {
+        this.searchable = searchable;
+    }
+
+    public int getHintMode() {
+        return hintMode;
+    }
+
+    /**
+     * Shows the hint as the first row of the adapter ({@link #HINT_MODE_ROW}), or draws it over
+     * the spinner until an item is selected ({@link #HINT_MODE_OVERLAY}). In overlay mode the
+     * adapter positions are the ones of the app's adapter and
+     * {@link #getSelectedItemPosition()} is {@link #INVALID_POSITION} while the hint is shown.
+     * Changing the mode resets the selection.
+     *
+     * @attr ref R.styleable#MaterialSpinner_s_hintMode
+     */
+    public void setHintMode(int hintMode) {
+        if (this.hintMode == hintMode) {
+            return;
+        }
+        this.hintMode = hintMode;
+        hintOverlayVisible = true;
+        if (hintAdapter != null) {
+            super.setAdapter(hintAdapter);
+        }
+        invalidate();
+    }
+
     public void setFloatingLabelText(CharSequence floatingLabelText) {
+        if (TextUtils.equals(this.floatingLabelText, floatingLabelText)) {
+            return;
+        }
         this.floatingLabelText = floatingLabelText;
-        invalidate();
+        updateDrawState();
+        invalidateRegions(DIRTY_LABEL);
     }
 
     public void setFloatingLabelText(int resid) {
@@ -635,8 +1418,51 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
         return this.floatingLabelText;
     }
 
+    /**
+     * Requests a new error. While attached, the transitions requested within a frame are
+     * merged and only the last one is applied on the next frame, so validating on every
+     * keystroke costs at most one layout per frame. Setting the shown error again does nothing.
+     */
     public void setError(CharSequence error) {
-        this.error = error;
+        requestedError = error;
+        if (errorTransitionScheduled) {
+            return;
+        }
+        if (TextUtils.equals(error, this.error)) {
+            return;
+        }
+        if (!attached) {
+            //No frame to merge into, nothing is laid out before the spinner is attached anyway
+            applyError();
+            return;
+        }
+        errorTransitionScheduled = true;
+        ViewCompat.postOnAnimation(this, errorTransitionRunnable);
+    }
+
+    public void setError(int resid) {
+        CharSequence error = getResources().getString(resid);
+        setError(error);
+    }
+
+    private void applyError() {
+        long start = beginOperation(OPERATION_SET_ERROR);
+        try {
+            applyRequestedError();
+        } finally {
+            endOperation(OPERATION_SET_ERROR, start);
+        }
+    }
+
+    private void applyRequestedError() {
+        errorTransitionScheduled = false;
+        if (TextUtils.equals(requestedError, error)) {
+            //The burst ended on the error already shown
+            return;
+        }
+        this.error = requestedError;
+        updateDrawState();
+        errorScrollLayer = null;
         if (errorLabelAnimator != null) {
             errorLabelAnimator.end();
         }
@@ -646,36 +1472,56 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
         } else if (needScrollingAnimation()) {
             startErrorScrollingAnimator();
         }
-        requestLayout();
-    }
-
-    public void setError(int resid) {
-        CharSequence error = getResources().getString(resid);
-        setError(error);
+        invalidateRegions(DIRTY_ERROR);
     }
 
     @Override
     public void setEnabled(boolean enabled) {
         if (!enabled) {
+            //super redraws the whole view when the state changes
             isSelected = false;
-            invalidate();
         }
         super.setEnabled(enabled);
+        refreshHintViews();
     }
 
     public CharSequence getError() {
-        return this.error;
+        return errorTransitionScheduled ? requestedError : this.error;
     }
 
     public void setRtl() {
+        if (isRtl) {
+            return;
+        }
         isRtl = true;
-        invalidate();
+        updateDrawState();
+        invalidateRegions(DIRTY_LABEL);
     }
 
     public boolean isRtl() {
         return isRtl;
     }
 
+    public boolean isArrowAnimationEnabled() {
+        return animateArrow;
+    }
+
+    /**
+     * Rotates the arrow up while the dropdown is open.
+     *
+     * @attr ref R.styleable#MaterialSpinner_s_animateArrow
+     */
+    public void setArrowAnimationEnabled(boolean enabled) {
+        this.animateArrow = enabled;
+        if (!enabled && arrowRotation != 0) {
+            if (arrowAnimator != null) {
+                arrowAnimator.cancel();
+            }
+            arrowRotation = 0;
+            invalidateRegions(DIRTY_ARROW);
+        }
+    }
+
     /**
      * @deprecated {use @link #setPaddingSafe(int, int, int, int)} to keep internal computation OK
      */
@@ -693,6 +1539,7 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
         innerPaddingBottom = bottom;
 
         updatePadding();
+        refreshErrorLayout();
     }
 
     @Override
@@ -702,43 +1549,87 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
 
     @Override
     public void setAdapter(SpinnerAdapter adapter) {
-        hintAdapter = new HintAdapter(adapter, getContext());
-        super.setAdapter(hintAdapter);
+        long start = beginOperation(OPERATION_SET_ADAPTER);
+        try {
+            if (hintAdapter != null && adapter != null && hintAdapter.getWrappedAdapter() == adapter) {
+                //Same data source: refresh it in place, keeping the wrapper and the selection
+                hintAdapter.notifyDataSetChanged();
+                return;
+            }
+            hintAdapter = new HintAdapter(adapter, getContext());
+            //New data: nothing has been picked from it yet, so the hint covers it again
+            hintOverlayVisible = true;
+            super.setAdapter(hintAdapter);
+            invalidate();
+            precomputeRows();
+        } finally {
+            endOperation(OPERATION_SET_ADAPTER, start);
+        }
     }
 
+    /**
+     * Starts laying out the text of the dropdown rows in the background, for the width the
+     * dropdown gets from the spinner.
+     */
+    private void precomputeRows() {
+        SpinnerAdapter adapter = hintAdapter != null ? hintAdapter.getWrappedAdapter() : null;
+        int rowWidth = getWidth() - getPaddingLeft() - getPaddingRight();
+        if (adapter instanceof PrecomputedTextAdapter && rowWidth > 0) {
+            ((PrecomputedTextAdapter<?>) adapter).precompute(rowWidth);
+        }
+    }
+
+    /**
+     * Returns the adapter given to {@link #setAdapter(SpinnerAdapter)}.
+     * <p>
+     * While the spinner lays itself out or handles a data change notification, the
+     * adapter holding the hint row is returned instead, so that AdapterView counts
+     * and resolves its selection in the positions it works with. The wrapped
+     * adapter's own getView() and getDropDownView() still see the adapter that was set.
+     * Listeners called back from such a pass, like a DataSetObserver registered
+     * after the spinner's, may see the hint adapter.
+     * </p>
+     */
     @Override
     public SpinnerAdapter getAdapter() {
+        if (exposeHintAdapter) {
+            return hintAdapter;
+        }
         return hintAdapter != null ? hintAdapter.getWrappedAdapter() : null;
     }
 
-    private float getFloatingLabelPercent() {
-        return floatingLabelPercent;
-    }
-
-    private void setFloatingLabelPercent(float floatingLabelPercent) {
-        this.floatingLabelPercent = floatingLabelPercent;
+    /**
+     * @return the previous value, restored by the caller so that nested passes keep it
+     * @see #getAdapter()
+     */
+    private boolean setHintAdapterExposed(boolean exposed) {
+        boolean previous = exposeHintAdapter;
+        exposeHintAdapter = exposed;
+        return previous;
     }
 
-    private int getErrorLabelPosX() {
-        return errorLabelPosX;
+    @Override
+    protected void onLayout(boolean changed, int left, int top, int right, int bottom) {
+        //AdapterView reads the item count and resolves the selection through getAdapter(), see there
+        boolean exposed = setHintAdapterExposed(true);
+        try {
+            super.onLayout(changed, left, top, right, bottom);
+        } finally {
+            exposeHintAdapter = exposed;
+        }
     }
 
-    private void setErrorLabelPosX(int errorLabelPosX) {
-        this.errorLabelPosX = errorLabelPosX;
+    HintAdapter getHintAdapter() {
+        return hintAdapter;
     }
 
-    private float getCurrentErrorLines() {
-        return currentErrorLines;
-    }
-
-    private void setCurrentErrorLines(float currentErrorLines) {
-        this.currentErrorLines = currentErrorLines;
-        updateBottomPadding();
+    SpinnerStyle getStyle() {
+        return style;
     }
 
     @Override
     public Object getItemAtPosition(int position) {
-        if (hint != null) {
+        if (hasHintRow()) {
             position++;
         }
         return (hintAdapter == null || position < 0) ? null : hintAdapter.getItem(position);
@@ -746,7 +1637,7 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
 
     @Override
     public long getItemIdAtPosition(int position) {
-        if (hint != null) {
+        if (hasHintRow()) {
             position++;
         }
         return (hintAdapter == null || position < 0) ? INVALID_ROW_ID : hintAdapter.getItemId(position);
@@ -757,49 +1648,134 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
      * INNER CLASS
      * **********************************************************************************
      */
-    private class HintAdapter extends BaseAdapter {
+    private class SelectionRunnable implements Runnable {
+
+        @Override
+        public void run() {
+            selectionScheduled = false;
+            MaterialSpinner.super.setSelection(pendingSelection);
+        }
+    }
+
+    private class ErrorTransitionRunnable implements Runnable {
 
-        private static final int HINT_TYPE = -1;
+        @Override
+        public void run() {
+            applyError();
+        }
+    }
+
+    class HintAdapter extends BaseAdapter {
 
         private SpinnerAdapter mSpinnerAdapter;
         private Context mContext;
 
+        //Registered on the wrapped adapter as long as this adapter has observers of its own
+        private final DataSetObserver mWrappedObserver = new WrappedObserver();
+        private int mObserverCount;
+
+        //The last hint view of each mode, see takeCachedHintView()
+        private TextView mHintView;
+        private TextView mHintDropDownView;
+        //The list the dropdown hint view was last handed to
+        private ViewGroup mHintDropDownParent;
+
         public HintAdapter(SpinnerAdapter spinnerAdapter, Context context) {
             mSpinnerAdapter = spinnerAdapter;
             mContext = context;
         }
 
+        @Override
+        public void registerDataSetObserver(DataSetObserver observer) {
+            super.registerDataSetObserver(observer);
+            if (mObserverCount++ == 0 && mSpinnerAdapter != null) {
+                mSpinnerAdapter.registerDataSetObserver(mWrappedObserver);
+            }
+        }
+
+        @Override
+        public void unregisterDataSetObserver(DataSetObserver observer) {
+            super.unregisterDataSetObserver(observer);
+            if (--mObserverCount == 0 && mSpinnerAdapter != null) {
+                mSpinnerAdapter.unregisterDataSetObserver(mWrappedObserver);
+            }
+        }
+
+        @Override
+        public boolean hasStableIds() {
+            return mSpinnerAdapter.hasStableIds();
+        }
+
+        /**
+         * The spinner reads the new count through getAdapter(), it has to see the hint row.
+         */
+        @Override
+        public void notifyDataSetChanged() {
+            boolean exposed = setHintAdapterExposed(true);
+            try {
+                super.notifyDataSetChanged();
+            } finally {
+                exposeHintAdapter = exposed;
+            }
+        }
+
+        @Override
+        public void notifyDataSetInvalidated() {
+            boolean exposed = setHintAdapterExposed(true);
+            try {
+                super.notifyDataSetInvalidated();
+            } finally {
+                exposeHintAdapter = exposed;
+            }
+        }
+
         @Override
         public int getViewTypeCount() {
             //Workaround waiting for a Google correction (https://code.google.com/p/android/issues/detail?id=79011)
+            //Recycling does not depend on it: buildView checks the type recorded on each view it hands out
             if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
                 return 1;
             }
             int viewTypeCount = mSpinnerAdapter.getViewTypeCount();
-            return viewTypeCount;
+            return hasHintRow() ? viewTypeCount + 1 : viewTypeCount;
         }
 
         @Override
         public int getItemViewType(int position) {
-            position = hint != null ? position - 1 : position;
-            return (position == -1) ? HINT_TYPE : mSpinnerAdapter.getItemViewType(position);
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+                return 0;
+            }
+            return resolveViewType(position);
+        }
+
+        /**
+         * The hint gets the first type after the wrapped adapter's own ones,
+         * so hint rows and item rows never share a recycled view.
+         */
+        private int resolveViewType(int position) {
+            position = hasHintRow() ? position - 1 : position;
+            return (position == -1) ? getHintViewType() : mSpinnerAdapter.getItemViewType(position);
+        }
+
+        private int getHintViewType() {
+            return mSpinnerAdapter.getViewTypeCount();
         }
 
         @Override
         public int getCount() {
             int count = mSpinnerAdapter.getCount();
-            return hint != null ? count + 1 : count;
+            return hasHintRow() ? count + 1 : count;
         }
 
         @Override
         public Object getItem(int position) {
-            position = hint != null ? position - 1 : position;
+            position = hasHintRow() ? position - 1 : position;
             return (position == -1) ? hint : mSpinnerAdapter.getItem(position);
         }
 
         @Override
         public long getItemId(int position) {
-            position = hint != null ? position - 1 : position;
+            position = hasHintRow() ? position - 1 : position;
             return (position == -1) ? 0 : mSpinnerAdapter.getItemId(position);
         }
 
@@ -814,30 +1790,146 @@ public class MaterialSpinner extends AppCompatSpinner implements ValueAnimator.A
         }
 
         private View buildView(int position, View convertView, ViewGroup parent, boolean isDropDownView) {
-            if (getItemViewType(position) == HINT_TYPE) {
-                return getHintView(convertView, parent, isDropDownView);
+            if (metrics != null) {
+                metrics.onGetView(isDropDownView);
             }
-            //workaround to have multiple types in spinner
-            if (convertView != null) {
-                convertView = (convertView.getTag() != null && convertView.getTag() instanceof Integer && (Integer) convertView.getTag() != HINT_TYPE) ? convertView : null;
+            int viewType = resolveViewType(position);
+            //The type lives under its own tag key, the wrapped adapter keeps the plain tag for its view holders
+            if (convertView != null && !isRecyclable(convertView, viewType)) {
+                convertView = null;
+            }
+            View view;
+            if (viewType == getHintViewType()) {
+                view = getHintView(convertView, parent, isDropDownView);
+            } else {
+                position = hasHintRow() ? position - 1 : position;
+                //The wrapped adapter sees the spinner as the app does
+                boolean exposed = setHintAdapterExposed(false);
+                try {
+                    view = isDropDownView ? mSpinnerAdapter.getDropDownView(position, convertView, parent) : mSpinnerAdapter.getView(position, convertView, parent);
+                } finally {
+                    exposeHintAdapter = exposed;
+                }
             }
-            position = hint != null ? position - 1 : position;
-            return isDropDownView ? mSpinnerAdapter.getDropDownView(position, convertView, parent) : mSpinnerAdapter.getView(position, convertView, parent);
+            view.setTag(R.id.ms_view_type, viewType);
+            return view;
         }
 
+        private boolean isRecyclable(View convertView, int viewType) {
+            if (viewType == IGNORE_ITEM_VIEW_TYPE) {
+                return false;
+            }
+            Object tag = convertView.getTag(R.id.ms_view_type);
+            return tag instanceof Integer && (Integer) tag == viewType;
+        }
+
+        /**
+         * Returns the convertView, else the cached hint view of the mode when it is free,
+         * else a new one, which becomes the cached one.
+         *
+         * @param convertView A view tagged with the hint view type, see isRecyclable(), or null
+         */
         private View getHintView(final View convertView, final ViewGroup parent, final boolean isDropDownView) {
 
-            final LayoutInflater inflater = LayoutInflater.from(mContext);
-            final int resid = isDropDownView ? android.R.layout.simple_spinner_dropdown_item : android.R.layout.simple_spinner_item;
-            final TextView textView = (TextView) inflater.inflate(resid, parent, false);
-            textView.setText(hint);
-            textView.setTextColor(MaterialSpinner.this.isEnabled() ? hintColor : disabledColor);
-            textView.setTag(HINT_TYPE);
+            TextView textView = (TextView) convertView;
+            if (textView == null) {
+                textView = takeCachedHintView(parent, isDropDownView);
+            }
+            if (textView == null) {
+                final LayoutInflater inflater = LayoutInflater.from(mContext);
+                final int resid = isDropDownView ? android.R.layout.simple_spinner_dropdown_item : android.R.layout.simple_spinner_item;
+                textView = (TextView) inflater.inflate(resid, parent, false);
+                if (metrics != null) {
+                    metrics.onHintInflation();
+                }
+            }
+            if (isDropDownView) {
+                mHintDropDownView = textView;
+                mHintDropDownParent = parent;
+            } else {
+                mHintView = textView;
+            }
+            bindHintView(textView);
             return textView;
         }
 
+        /**
+         * Returns the cached hint view of the mode if no row may be using it, null otherwise.
+         * <p>
+         * The spinner's own view is free once the spinner removed it, which it does before
+         * asking for its selected view. A dropdown view is only free for another list: the
+         * list it was handed to may hold it in its scrap heap, without a parent, and give it
+         * to another row. Each dropdown gets a new list, so on Lollipop and later, where the
+         * hint row shares its view type with the items and only ever gets item views as
+         * convertView, opening the dropdown again reuses the hint view of the last one.
+         * </p>
+         */
+        private TextView takeCachedHintView(ViewGroup parent, boolean isDropDownView) {
+            if (!isDropDownView) {
+                return mHintView != null && mHintView.getParent() == null ? mHintView : null;
+            }
+            if (mHintDropDownView == null || mHintDropDownParent == parent) {
+                return null;
+            }
+            ViewParent oldParent = mHintDropDownView.getParent();
+            if (oldParent instanceof ViewGroup) {
+                ViewGroup oldList = (ViewGroup) oldParent;
+                if (oldList.getWindowToken() != null) {
+                    //The previous dropdown is still shown
+                    return null;
+                }
+                oldList.removeViewInLayout(mHintDropDownView);
+            }
+            return mHintDropDownView;
+        }
+
+        private void bindHintView(TextView textView) {
+            if (!TextUtils.equals(textView.getText(), hint)) {
+                textView.setText(hint);
+            }
+            int color = MaterialSpinner.this.isEnabled() ? hintColor : disabledColor;
+            if (textView.getCurrentTextColor() != color) {
+                textView.setTextColor(color);
+            }
+        }
+
+        /**
+         * Rebinds the hint row shown by the spinner after the hint, its color or the
+         * enabled state changed, without inflating it again, and the cached dropdown
+         * hint view, which may be shown by an open dropdown. Other dropdown rows are
+         * bound when they are shown.
+         */
+        private void refreshHintViews() {
+            if (!hasHintRow()) {
+                return;
+            }
+            int hintViewType = getHintViewType();
+            for (int i = 0; i < MaterialSpinner.this.getChildCount(); i++) {
+                View child = MaterialSpinner.this.getChildAt(i);
+                if (isRecyclable(child, hintViewType)) {
+                    bindHintView((TextView) child);
+                }
+            }
+            if (mHintDropDownView != null) {
+                bindHintView(mHintDropDownView);
+            }
+        }
+
         private SpinnerAdapter getWrappedAdapter() {
             return mSpinnerAdapter;
         }
+
+        private class WrappedObserver extends DataSetObserver {
+
+            @Override
+            public void onChanged() {
+                notifyDataSetChanged();
+            }
+
+            @Override
+            public void onInvalidated() {
+                notifyDataSetInvalidated();
+            }
+        }
     }
-}
\ No newline at end of file
+}
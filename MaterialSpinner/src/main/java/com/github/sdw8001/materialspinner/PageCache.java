@@ -0,0 +1,140 @@
+package com.github.sdw8001.materialspinner;
+
+import java.util.List;
+
+/**
+ * The pages kept in memory by a {@link PagedSpinnerAdapter}, least recently
+ * used first out.
+ * <p>
+ * Uses are stamped with a clock the adapter also reads when it starts a load,
+ * and a loaded page comes in with the stamp of the last row that asked for it
+ * rather than as the most recently used page. A load that took long enough for
+ * the rows to move on is then the oldest page, and is dropped instead of
+ * evicting a page still on screen.
+ * </p>
+ * <p>
+ * There are only a handful of pages: they are kept in arrays and scanned, so
+ * lookups allocate nothing. Free of Android classes so it can be benchmarked
+ * on the JVM.
+ * </p>
+ *
+ * @param <T> The type of the items
+ */
+final class PageCache<T> {
+
+    private final int[] mPages;
+    private final Object[] mItems;
+    private final long[] mLastUses;
+    private int mSize;
+    private long mClock;
+
+    PageCache(int maxPages) {
+        mPages = new int[maxPages];
+        mItems = new Object[maxPages];
+        mLastUses = new long[maxPages];
+    }
+
+    /**
+     * @return a stamp later than every use so far, for a page asked for now
+     */
+    long tick() {
+        return ++mClock;
+    }
+
+    /**
+     * Returns the items of the page and marks it as used, or null if it is not in memory.
+     */
+    @SuppressWarnings("unchecked")
+    List<T> get(int page) {
+        int index = indexOf(page);
+        if (index < 0) {
+            return null;
+        }
+        mLastUses[index] = tick();
+        return (List<T>) mItems[index];
+    }
+
+    boolean contains(int page) {
+        return indexOf(page) >= 0;
+    }
+
+    /**
+     * Adds a page last used at the given stamp. When the cache is full, the least
+     * recently used page makes room, unless that would be the new page itself.
+     *
+     * @return whether the page was kept
+     */
+    boolean put(int page, List<T> items, long lastUse) {
+        int index = indexOf(page);
+        if (index < 0) {
+            if (mSize < mPages.length) {
+                index = mSize++;
+            } else {
+                index = leastRecentlyUsed();
+                if (mLastUses[index] > lastUse) {
+                    //Every page in memory was used since this one was asked for
+                    return false;
+                }
+            }
+            mPages[index] = page;
+            mLastUses[index] = lastUse;
+        } else {
+            mLastUses[index] = Math.max(mLastUses[index], lastUse);
+        }
+        mItems[index] = items;
+        return true;
+    }
+
+    /**
+     * Drops the pages from the given one on.
+     */
+    void removeFrom(int page) {
+        for (int i = mSize - 1; i >= 0; i--) {
+            if (mPages[i] >= page) {
+                removeAt(i);
+            }
+        }
+    }
+
+    void clear() {
+        for (int i = 0; i < mSize; i++) {
+            mItems[i] = null;
+        }
+        mSize = 0;
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    int maxSize() {
+        return mPages.length;
+    }
+
+    private void removeAt(int index) {
+        int last = --mSize;
+        mPages[index] = mPages[last];
+        mItems[index] = mItems[last];
+        mLastUses[index] = mLastUses[last];
+        mItems[last] = null;
+    }
+
+    private int indexOf(int page) {
+        for (int i = 0; i < mSize; i++) {
+            if (mPages[i] == page) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int leastRecentlyUsed() {
+        int oldest = 0;
+        for (int i = 1; i < mSize; i++) {
+            if (mLastUses[i] < mLastUses[oldest]) {
+                oldest = i;
+            }
+        }
+        return oldest;
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.sdw8001.materialspinner;
+
+import java.util.List;
+
+/**
+ * Source of the items of a {@link PagedSpinnerAdapter}, read one page at a
+ * time so that very large choice lists never have to be held in memory.
+ *
+ * @param <T> The type of the items
+ */
+public interface PagedDataSource<T> {
+
+    /**
+     * Returns the total number of items. Called on the main thread, when the
+     * adapter is created and refreshed, so it has to be cheap.
+     */
+    int getCount();
+
+    /**
+     * Loads the items from {@code offset} to {@code offset + limit}, fewer on
+     * the last page. Called on a background thread.
+     *
+     * @param offset The position of the first item of the page
+     * @param limit The page size
+     * @return the items of the page, in order
+     */
+    List<T> loadPage(int offset, int limit);
+}
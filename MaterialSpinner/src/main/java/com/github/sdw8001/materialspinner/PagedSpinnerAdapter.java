@@ -0,0 +1,303 @@
+package com.github.sdw8001.materialspinner;
+
+import android.content.Context;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.SparseArray;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+import android.widget.TextView;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Adapter over a {@link PagedDataSource}, for spinners with tens of
+ * thousands of choices. Pages of a fixed size are loaded on a background
+ * executor when a row of theirs is first asked for, a placeholder row is
+ * shown meanwhile, and only the most recently used pages are kept, so
+ * memory does not depend on the size of the data set.
+ * <p>
+ * A page shorter than asked for ends the data: the count is lowered to the
+ * items actually there.
+ * </p>
+ * <p>
+ * To search the items, a searchable spinner reads every page from the data
+ * source on a background thread, without keeping them, rather than loading
+ * them all into the adapter.
+ * </p>
+ * <p>
+ * Positions are the ones of the data source: when set on a
+ * {@link MaterialSpinner}, the hint row is added in front by the spinner.
+ * Must be used from the main thread.
+ * </p>
+ *
+ * @param <T> The type of the items
+ */
+public class PagedSpinnerAdapter<T> extends BaseAdapter implements SpinnerLabelProvider {
+
+    private static final String TAG = PagedSpinnerAdapter.class.getSimpleName();
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int DEFAULT_MAX_PAGES = 8;
+    //The rows on screen, the page prefetched after them, the selected row and a load still in flight
+    private static final int MIN_PAGES = 5;
+
+    private final LayoutInflater mInflater;
+    private final int mResource;
+    private final int mFieldId;
+    private int mDropDownResource;
+    private CharSequence mPlaceholderText = "";
+
+    private final PagedDataSource<T> mDataSource;
+    private final int mPageSize;
+    private final Executor mExecutor;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private final PageCache<T> mPages;
+    private final SparseArray<PageLoad> mLoads = new SparseArray<>();
+    private int mCount;
+    //Bumped by refresh(), pages loaded for an older generation are dropped
+    private int mGeneration;
+
+    public PagedSpinnerAdapter(Context context, int resource, PagedDataSource<T> dataSource) {
+        this(context, resource, 0, dataSource, DEFAULT_PAGE_SIZE, DEFAULT_MAX_PAGES, AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /**
+     * @param context The context of the spinner
+     * @param resource The layout of the rows
+     * @param textViewResourceId The id of the TextView in the row, 0 if the row is a TextView
+     * @param dataSource The source of the items
+     * @param pageSize The number of items loaded at once
+     * @param maxPages The number of pages kept in memory, at least 5. The rows shown at
+     *                 once should fit in {@code maxPages - 2} pages, or loading one of
+     *                 them evicts another
+     * @param executor The executor running {@link PagedDataSource#loadPage(int, int)}
+     */
+    public PagedSpinnerAdapter(Context context, int resource, int textViewResourceId, PagedDataSource<T> dataSource,
+                               int pageSize, int maxPages, Executor executor) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize <= 0");
+        }
+        if (maxPages < MIN_PAGES) {
+            throw new IllegalArgumentException("maxPages < " + MIN_PAGES);
+        }
+        mInflater = LayoutInflater.from(context);
+        mResource = mDropDownResource = resource;
+        mFieldId = textViewResourceId;
+        mDataSource = dataSource;
+        mPageSize = pageSize;
+        mExecutor = executor;
+        mPages = new PageCache<>(maxPages);
+        mCount = dataSource.getCount();
+    }
+
+    @Override
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Returns the item at the given position, or null while its page is loading.
+     */
+    @Override
+    public T getItem(int position) {
+        int page = position / mPageSize;
+        List<T> items = mPages.get(page);
+        if (items == null) {
+            loadPage(page, true);
+            return null;
+        }
+        if (position % mPageSize >= mPageSize - mPageSize / 4) {
+            //Close to the end of the page, the next one is likely to be shown soon
+            prefetchPage(page + 1);
+        }
+        int index = position % mPageSize;
+        return index < items.size() ? items.get(index) : null;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
+    /**
+     * @return whether the item at the given position is in memory
+     */
+    public boolean isLoaded(int position) {
+        return mPages.contains(position / mPageSize);
+    }
+
+    /**
+     * Drops the loaded pages and reads the count again, after the data source changed.
+     */
+    public void refresh() {
+        mGeneration++;
+        mPages.clear();
+        mLoads.clear();
+        mCount = mDataSource.getCount();
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Sets the text of the rows whose page is loading, empty by default.
+     */
+    public void setPlaceholderText(CharSequence placeholderText) {
+        mPlaceholderText = placeholderText;
+    }
+
+    public void setDropDownViewResource(int resource) {
+        mDropDownResource = resource;
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        return createViewFromResource(position, convertView, parent, mResource);
+    }
+
+    @Override
+    public View getDropDownView(int position, View convertView, ViewGroup parent) {
+        return createViewFromResource(position, convertView, parent, mDropDownResource);
+    }
+
+    /**
+     * Reads the pages from the data source one after the other, on the calling background
+     * thread, and returns the {@link #getItemText(Object)} of their items. The pages are
+     * not kept.
+     */
+    @Override
+    public List<CharSequence> loadSearchLabels(int count) {
+        List<CharSequence> labels = new ArrayList<>(count);
+        for (int offset = 0; offset < count; offset += mPageSize) {
+            int limit = Math.min(mPageSize, count - offset);
+            List<T> items;
+            try {
+                items = mDataSource.loadPage(offset, limit);
+            } catch (RuntimeException e) {
+                //The items after the ones read are left out of the search
+                Log.w(TAG, "Could not load the page at " + offset, e);
+                break;
+            }
+            for (T item : items) {
+                labels.add(item != null ? getItemText(item) : "");
+            }
+            if (items.size() < limit) {
+                break;
+            }
+        }
+        return labels;
+    }
+
+    /**
+     * Returns the text shown for the given item, {@link Object#toString()} by default.
+     * Also called on a background thread, for {@link #loadSearchLabels(int)}.
+     */
+    protected CharSequence getItemText(T item) {
+        return item.toString();
+    }
+
+    private View createViewFromResource(int position, View convertView, ViewGroup parent, int resource) {
+        View view = convertView != null ? convertView : mInflater.inflate(resource, parent, false);
+        TextView text = (TextView) (mFieldId == 0 ? view : view.findViewById(mFieldId));
+        T item = getItem(position);
+        text.setText(item != null ? getItemText(item) : mPlaceholderText);
+        return view;
+    }
+
+    int getLoadedPageCount() {
+        return mPages.size();
+    }
+
+    private void prefetchPage(int page) {
+        if (page * mPageSize < mCount && !mPages.contains(page)) {
+            loadPage(page, false);
+        }
+    }
+
+    /**
+     * Starts loading the page unless it already is, and records that it was asked for now.
+     *
+     * @param forRow Whether a row is shown with a placeholder until the page is there
+     */
+    private void loadPage(int page, boolean forRow) {
+        PageLoad load = mLoads.get(page);
+        if (load == null) {
+            int offset = page * mPageSize;
+            int limit = Math.min(mPageSize, mCount - offset);
+            if (limit <= 0) {
+                return;
+            }
+            load = new PageLoad(page, offset, limit, mGeneration);
+            mLoads.put(page, load);
+            mExecutor.execute(load);
+        }
+        load.mLastRequest = mPages.tick();
+        load.mForRow |= forRow;
+    }
+
+    private void onPageLoaded(PageLoad load, List<T> items) {
+        if (load.mPageGeneration != mGeneration) {
+            return;
+        }
+        mLoads.remove(load.mPage);
+        if (items == null) {
+            return;
+        }
+        boolean changed = false;
+        if (items.size() < load.mLimit) {
+            //The data source ran out before the count it gave
+            mCount = Math.min(mCount, load.mOffset + items.size());
+            mPages.removeFrom(load.mPage + 1);
+            changed = true;
+        }
+        //A prefetched page is not shown yet, and a page the rows moved away from is dropped
+        if (mPages.put(load.mPage, items, load.mLastRequest) && load.mForRow) {
+            changed = true;
+        }
+        if (changed) {
+            notifyDataSetChanged();
+        }
+    }
+
+    private class PageLoad implements Runnable {
+
+        private final int mPage;
+        private final int mOffset;
+        private final int mLimit;
+        private final int mPageGeneration;
+        //Main thread only
+        private long mLastRequest;
+        private boolean mForRow;
+
+        PageLoad(int page, int offset, int limit, int generation) {
+            mPage = page;
+            mOffset = offset;
+            mLimit = limit;
+            mPageGeneration = generation;
+        }
+
+        @Override
+        public void run() {
+            List<T> items = null;
+            try {
+                items = mDataSource.loadPage(mOffset, mLimit);
+            } catch (RuntimeException e) {
+                //The page stays a placeholder and is asked for again by the next bind
+                Log.w(TAG, "Could not load the page at " + mOffset, e);
+            }
+            final List<T> loaded = items;
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    onPageLoaded(PageLoad.this, loaded);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.github.sdw8001.materialspinner;
+
+import android.content.Context;
+import android.content.res.ColorStateList;
+import android.content.res.TypedArray;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.text.TextUtils;
+import android.view.View;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.widget.TextView;
+
+/**
+ * Row label drawing a {@link StaticLayout} taken from the
+ * {@link TextLayoutCache}, so that binding a row whose text was
+ * precomputed does not measure text on the main thread. A missing layout
+ * is built on the spot, like a TextView would.
+ * <p>
+ * Like a TextView, its color follows the enabled state and accessibility
+ * services read its text.
+ * </p>
+ *
+ * @see PrecomputedTextAdapter
+ */
+public class PrecomputedLabelView extends View {
+
+    private final TextPaint mPaint;
+    private ColorStateList mTextColor;
+    private CharSequence mText = "";
+    private StaticLayout mLayout;
+    //Text width used when the parent does not constrain the width, see PrecomputedTextAdapter
+    private int mPreferredTextWidth;
+
+    public PrecomputedLabelView(Context context) {
+        super(context);
+        mPaint = createPaint(context);
+        TypedArray array = context.obtainStyledAttributes(new int[]{android.R.attr.textColorPrimary, android.R.attr.listPreferredItemHeightSmall});
+        mTextColor = array.getColorStateList(0);
+        if (mTextColor == null) {
+            mTextColor = ColorStateList.valueOf(0xFF000000);
+        }
+        setMinimumHeight(array.getDimensionPixelSize(1, 0));
+        array.recycle();
+    }
+
+    /**
+     * Creates the paint of the rows, the one the layouts have to be precomputed with.
+     */
+    static TextPaint createPaint(Context context) {
+        TextPaint paint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        paint.setTextSize(context.getResources().getDimensionPixelSize(R.dimen.hint_text_size));
+        return paint;
+    }
+
+    public void setText(CharSequence text) {
+        if (text == null) {
+            text = "";
+        }
+        if (TextUtils.equals(mText, text)) {
+            return;
+        }
+        mText = text;
+        mLayout = null;
+        requestLayout();
+        invalidate();
+    }
+
+    public CharSequence getText() {
+        return mText;
+    }
+
+    public void setTextColor(int color) {
+        setTextColor(ColorStateList.valueOf(color));
+    }
+
+    public void setTextColor(ColorStateList colors) {
+        if (colors == null) {
+            throw new NullPointerException();
+        }
+        mTextColor = colors;
+        invalidate();
+    }
+
+    /**
+     * Sets the typeface of the text, which the precomputed layouts are looked up with.
+     */
+    public void setTypeface(Typeface typeface) {
+        if (mPaint.getTypeface() != typeface) {
+            mPaint.setTypeface(typeface);
+            mLayout = null;
+            requestLayout();
+            invalidate();
+        }
+    }
+
+    public Typeface getTypeface() {
+        return mPaint.getTypeface();
+    }
+
+    void setPreferredTextWidth(int width) {
+        mPreferredTextWidth = width;
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        int widthMode = MeasureSpec.getMode(widthMeasureSpec);
+        int horizontalPadding = getPaddingLeft() + getPaddingRight();
+        int textWidth = widthMode == MeasureSpec.UNSPECIFIED
+                ? mPreferredTextWidth
+                : MeasureSpec.getSize(widthMeasureSpec) - horizontalPadding;
+        if (mLayout == null || mLayout.getWidth() != Math.max(0, textWidth)) {
+            mLayout = TextLayoutCache.obtain(mText, mPaint, textWidth);
+        }
+
+        int width;
+        if (widthMode == MeasureSpec.EXACTLY) {
+            width = MeasureSpec.getSize(widthMeasureSpec);
+        } else {
+            float lineWidth = 0;
+            for (int i = 0; i < mLayout.getLineCount(); i++) {
+                lineWidth = Math.max(lineWidth, mLayout.getLineWidth(i));
+            }
+            width = resolveSize((int) Math.ceil(lineWidth) + horizontalPadding, widthMeasureSpec);
+        }
+        int height = Math.max(getSuggestedMinimumHeight(), mLayout.getHeight() + getPaddingTop() + getPaddingBottom());
+        setMeasuredDimension(width, resolveSize(height, heightMeasureSpec));
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        if (mLayout == null) {
+            return;
+        }
+        //A cached layout has a paint of its own, shared with the rows of the same text on this thread only
+        mLayout.getPaint().setColor(mTextColor.getColorForState(getDrawableState(), mTextColor.getDefaultColor()));
+        int contentHeight = getHeight() - getPaddingTop() - getPaddingBottom();
+        canvas.save();
+        canvas.translate(getPaddingLeft(), getPaddingTop() + Math.max(0, (contentHeight - mLayout.getHeight()) / 2));
+        mLayout.draw(canvas);
+        canvas.restore();
+    }
+
+    @Override
+    protected void drawableStateChanged() {
+        super.drawableStateChanged();
+        if (mTextColor.isStateful()) {
+            invalidate();
+        }
+    }
+
+    @Override
+    public void onPopulateAccessibilityEvent(AccessibilityEvent event) {
+        super.onPopulateAccessibilityEvent(event);
+        if (!TextUtils.isEmpty(mText)) {
+            event.getText().add(mText);
+        }
+    }
+
+    @Override
+    public void onInitializeAccessibilityNodeInfo(AccessibilityNodeInfo info) {
+        super.onInitializeAccessibilityNodeInfo(info);
+        //Read as the TextView it stands for
+        info.setClassName(TextView.class.getName());
+        info.setText(mText);
+    }
+}
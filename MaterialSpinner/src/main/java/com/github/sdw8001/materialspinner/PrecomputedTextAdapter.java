@@ -0,0 +1,121 @@
+package com.github.sdw8001.materialspinner;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.text.TextPaint;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.BaseAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adapter of text rows whose layouts are computed on a background thread
+ * when it is set on a {@link MaterialSpinner}, for long or multi-script
+ * labels which would make the dropdown stall on low-end devices while each
+ * row measures its text. Rows are {@link PrecomputedLabelView}s.
+ * <p>
+ * The layouts are computed for the width of the dropdown rows, which is
+ * the width of the spinner without its padding. Rows of another width lay
+ * their text out on the main thread as usual, and so do the rows after the
+ * first ones, up to half of the {@link TextLayoutCache}.
+ * </p>
+ *
+ * @param <T> The type of the items
+ */
+public class PrecomputedTextAdapter<T> extends BaseAdapter {
+
+    private final Context mContext;
+    private final List<T> mItems;
+    private final TextPaint mPaint;
+    private final int mRowPadding;
+    private int mTextWidth;
+
+    /**
+     * @param context The context of the spinner
+     * @param items The items, shown with {@link #getItemText(Object)}
+     */
+    public PrecomputedTextAdapter(Context context, List<T> items) {
+        mContext = context;
+        mItems = items;
+        mPaint = PrecomputedLabelView.createPaint(context);
+        mRowPadding = context.getResources().getDimensionPixelSize(R.dimen.right_left_spinner_padding);
+    }
+
+    @Override
+    public int getCount() {
+        return mItems.size();
+    }
+
+    @Override
+    public T getItem(int position) {
+        return mItems.get(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return position;
+    }
+
+    /**
+     * Returns the text shown for the given item, {@link Object#toString()} by default.
+     */
+    protected CharSequence getItemText(T item) {
+        return item.toString();
+    }
+
+    /**
+     * Sets the typeface of the rows, the default one otherwise. Set it before the adapter is
+     * given to the spinner: layouts precomputed with another typeface are not used.
+     */
+    public void setTypeface(Typeface typeface) {
+        if (mPaint.getTypeface() != typeface) {
+            mPaint.setTypeface(typeface);
+            //Lay the rows out again on the next precompute()
+            mTextWidth = 0;
+            notifyDataSetChanged();
+        }
+    }
+
+    public Typeface getTypeface() {
+        return mPaint.getTypeface();
+    }
+
+    /**
+     * Lays out the text of the first items in the background for rows of the given width.
+     * Called by {@link MaterialSpinner} once it knows its width.
+     */
+    public void precompute(int rowWidth) {
+        int textWidth = rowWidth - 2 * mRowPadding;
+        if (textWidth <= 0 || textWidth == mTextWidth) {
+            return;
+        }
+        mTextWidth = textWidth;
+        List<CharSequence> texts = new ArrayList<>();
+        int chars = 0;
+        //The cache takes no more, the remaining texts are not even read
+        for (int i = 0; i < mItems.size() && chars <= TextLayoutCache.MAX_PRECOMPUTED_CHARS; i++) {
+            CharSequence text = getItemText(mItems.get(i));
+            chars += text.length() + 1;
+            texts.add(text);
+        }
+        TextLayoutCache.precompute(texts, mPaint, textWidth);
+    }
+
+    @Override
+    public View getView(int position, View convertView, ViewGroup parent) {
+        PrecomputedLabelView view = convertView != null ? (PrecomputedLabelView) convertView : newView();
+        view.setPreferredTextWidth(mTextWidth);
+        view.setTypeface(mPaint.getTypeface());
+        view.setEnabled(isEnabled(position));
+        view.setText(getItemText(getItem(position)));
+        return view;
+    }
+
+    private PrecomputedLabelView newView() {
+        PrecomputedLabelView view = new PrecomputedLabelView(mContext);
+        view.setPadding(mRowPadding, 0, mRowPadding, 0);
+        return view;
+    }
+}
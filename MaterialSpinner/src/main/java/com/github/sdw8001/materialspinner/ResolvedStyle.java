@@ -0,0 +1,168 @@
+package com.github.sdw8001.materialspinner;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.content.res.TypedArray;
+import android.support.v4.content.ContextCompat;
+import android.util.DisplayMetrics;
+import android.util.SparseArray;
+import android.util.TypedValue;
+
+import java.util.WeakHashMap;
+
+/**
+ * Immutable bundle of the {@link MaterialSpinner} attribute defaults and
+ * dimensions, as resolved for one theme and one style resource.
+ * <p>
+ * Spinners sharing the same theme and style share one instance, so that
+ * only the attributes set on each view have to be read from its
+ * {@link android.util.AttributeSet}.
+ * </p>
+ */
+final class ResolvedStyle {
+
+    private final static int[] DEFAULT_SPINNER_COLORS = new int[]{R.attr.colorControlNormal, R.attr.colorAccent};
+    private final static int INDEX_COLOR_CONTROL_NORMAL = 0;
+    private final static int INDEX_COLOR_ACCENT = 1;
+
+    private static final WeakHashMap<Resources.Theme, SparseArray<ResolvedStyle>> sCache = new WeakHashMap<>();
+
+    private static int sHitCount;
+    private static int sMissCount;
+
+    //Attribute defaults
+    final int baseColor;
+    final int highlightColor;
+    final int errorColor;
+    final int disabledColor;
+    final int hintColor;
+    final boolean hasHintColor;
+    final int floatingLabelColor;
+    final boolean hasFloatingLabelColor;
+    final int arrowColor;
+    final boolean hasArrowColor;
+    final CharSequence error;
+    final CharSequence hint;
+    final CharSequence floatingLabelText;
+    final boolean multiline;
+    final int errorLines;
+    final String typefacePath;
+    final boolean alignLabels;
+    final float thickness;
+    final float thicknessError;
+    final float arrowSize;
+    final boolean enableErrorLabel;
+    final boolean enableFloatingLabel;
+    final boolean enableUnderLine;
+    final boolean isRtl;
+    final int errorScrollFrameRate;
+    final boolean errorScrollLayer;
+    final boolean animateArrow;
+    final int hintMode;
+    final boolean searchable;
+
+    //@see dimens.xml
+    final int labelTextSize;
+    final int hintTextSize;
+    final int underlineTopSpacing;
+    final int underlineBottomSpacing;
+    final int errorLabelSpacing;
+    final int floatingLabelTopSpacing;
+    final int floatingLabelBottomSpacing;
+    final int floatingLabelInsideSpacing;
+    final int rightLeftSpinnerPadding;
+    final int minContentHeight;
+
+    private final Configuration configuration;
+
+    private ResolvedStyle(Context context, int styleRes) {
+        Resources resources = context.getResources();
+        configuration = new Configuration(resources.getConfiguration());
+
+        TypedArray defaultArray = context.obtainStyledAttributes(DEFAULT_SPINNER_COLORS);
+        int defaultBaseColor = defaultArray.getColor(INDEX_COLOR_CONTROL_NORMAL, 0);
+        int defaultHighlightColor = defaultArray.getColor(INDEX_COLOR_ACCENT, 0);
+        defaultArray.recycle();
+
+        TypedArray array = context.obtainStyledAttributes(null, R.styleable.MaterialSpinner, 0, styleRes);
+        baseColor = array.getColor(R.styleable.MaterialSpinner_s_baseColor, defaultBaseColor);
+        highlightColor = array.getColor(R.styleable.MaterialSpinner_s_highlightColor, defaultHighlightColor);
+        errorColor = array.getColor(R.styleable.MaterialSpinner_s_errorColor, ContextCompat.getColor(context, R.color.error_color));
+        disabledColor = ContextCompat.getColor(context, R.color.disabled_color);
+        hasHintColor = array.hasValue(R.styleable.MaterialSpinner_s_hintColor);
+        hintColor = array.getColor(R.styleable.MaterialSpinner_s_hintColor, baseColor);
+        hasFloatingLabelColor = array.hasValue(R.styleable.MaterialSpinner_s_floatingLabelColor);
+        floatingLabelColor = array.getColor(R.styleable.MaterialSpinner_s_floatingLabelColor, baseColor);
+        hasArrowColor = array.hasValue(R.styleable.MaterialSpinner_s_arrowColor);
+        arrowColor = array.getColor(R.styleable.MaterialSpinner_s_arrowColor, baseColor);
+        error = array.getString(R.styleable.MaterialSpinner_s_error);
+        hint = array.getString(R.styleable.MaterialSpinner_s_hint);
+        floatingLabelText = array.getString(R.styleable.MaterialSpinner_s_floatingLabelText);
+        multiline = array.getBoolean(R.styleable.MaterialSpinner_s_multiline, true);
+        errorLines = array.getInt(R.styleable.MaterialSpinner_s_errorLines, 1);
+        typefacePath = array.getString(R.styleable.MaterialSpinner_s_typeface);
+        alignLabels = array.getBoolean(R.styleable.MaterialSpinner_s_alignLabels, true);
+        thickness = array.getDimension(R.styleable.MaterialSpinner_s_thickness, 1);
+        thicknessError = array.getDimension(R.styleable.MaterialSpinner_s_thickness_error, 2);
+        arrowSize = array.getDimension(R.styleable.MaterialSpinner_s_arrowSize, dpToPx(resources.getDisplayMetrics(), MaterialSpinner.DEFAULT_ARROW_WIDTH_DP));
+        enableErrorLabel = array.getBoolean(R.styleable.MaterialSpinner_s_enableErrorLabel, true);
+        enableUnderLine = array.getBoolean(R.styleable.MaterialSpinner_s_enableUnderLine, true);
+        enableFloatingLabel = array.getBoolean(R.styleable.MaterialSpinner_s_enableFloatingLabel, true);
+        isRtl = array.getBoolean(R.styleable.MaterialSpinner_s_isRtl, false);
+        errorScrollFrameRate = array.getInt(R.styleable.MaterialSpinner_s_errorScrollFrameRate, MaterialSpinner.DEFAULT_ERROR_SCROLL_FRAME_RATE);
+        errorScrollLayer = array.getBoolean(R.styleable.MaterialSpinner_s_errorScrollLayer, false);
+        animateArrow = array.getBoolean(R.styleable.MaterialSpinner_s_animateArrow, false);
+        hintMode = array.getInt(R.styleable.MaterialSpinner_s_hintMode, MaterialSpinner.HINT_MODE_ROW);
+        searchable = array.getBoolean(R.styleable.MaterialSpinner_s_searchable, false);
+        array.recycle();
+
+        labelTextSize = resources.getDimensionPixelSize(R.dimen.label_text_size);
+        hintTextSize = resources.getDimensionPixelSize(R.dimen.hint_text_size);
+        underlineTopSpacing = resources.getDimensionPixelSize(R.dimen.underline_top_spacing);
+        underlineBottomSpacing = resources.getDimensionPixelSize(R.dimen.underline_bottom_spacing);
+        floatingLabelTopSpacing = resources.getDimensionPixelSize(R.dimen.floating_label_top_spacing);
+        floatingLabelBottomSpacing = resources.getDimensionPixelSize(R.dimen.floating_label_bottom_spacing);
+        rightLeftSpinnerPadding = resources.getDimensionPixelSize(R.dimen.right_left_spinner_padding);
+        floatingLabelInsideSpacing = resources.getDimensionPixelSize(R.dimen.floating_label_inside_spacing);
+        errorLabelSpacing = (int) resources.getDimension(R.dimen.error_label_spacing);
+        minContentHeight = (int) resources.getDimension(R.dimen.min_content_height);
+    }
+
+    /**
+     * Returns the shared bundle for the theme of the given context and the
+     * given style resource, resolving it on the first call.
+     *
+     * @param context The context of the spinner, providing the theme
+     * @param styleRes The style set on the view ({@code style="..."}), or 0
+     */
+    static synchronized ResolvedStyle obtain(Context context, int styleRes) {
+        Resources.Theme theme = context.getTheme();
+        SparseArray<ResolvedStyle> styles = sCache.get(theme);
+        if (styles == null) {
+            styles = new SparseArray<>();
+            sCache.put(theme, styles);
+        }
+        ResolvedStyle style = styles.get(styleRes);
+        if (style != null && style.configuration.equals(context.getResources().getConfiguration())) {
+            sHitCount++;
+            return style;
+        }
+        sMissCount++;
+        style = new ResolvedStyle(context, styleRes);
+        styles.put(styleRes, style);
+        return style;
+    }
+
+    static synchronized int getHitCount() {
+        return sHitCount;
+    }
+
+    static synchronized int getMissCount() {
+        return sMissCount;
+    }
+
+    private static int dpToPx(DisplayMetrics displayMetrics, float dp) {
+        return Math.round(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, dp, displayMetrics));
+    }
+}
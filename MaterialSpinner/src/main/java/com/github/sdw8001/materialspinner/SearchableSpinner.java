@@ -0,0 +1,63 @@
+package com.github.sdw8001.materialspinner;
+
+import android.content.Context;
+import android.support.v7.widget.AppCompatSpinner;
+import android.util.AttributeSet;
+import android.view.SoundEffectConstants;
+
+/**
+ * The Spinner of a {@link LabelledSpinner}, opening the search dialog instead
+ * of its dropdown when the widget is searchable. The dialog is opened from
+ * {@link #performClick()}, so touch, keyboard and accessibility clicks all
+ * open it and the Spinner keeps its pressed state.
+ */
+class SearchableSpinner extends AppCompatSpinner {
+
+    //Null when the dropdown is opened as usual
+    private SpinnerSearch mSearch;
+
+    public SearchableSpinner(Context context) {
+        super(context);
+    }
+
+    public SearchableSpinner(Context context, AttributeSet attrs) {
+        super(context, attrs);
+    }
+
+    public SearchableSpinner(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+    }
+
+    boolean isSearchable() {
+        return mSearch != null;
+    }
+
+    void setSearchable(boolean searchable) {
+        if (searchable != isSearchable()) {
+            mSearch = searchable ? new SpinnerSearch(getContext()) : null;
+        }
+    }
+
+    @Override
+    public boolean performClick() {
+        if (mSearch == null || getAdapter() == null) {
+            return super.performClick();
+        }
+        playSoundEffect(SoundEffectConstants.CLICK);
+        mSearch.show(getAdapter(), new SpinnerSearch.OnItemChosenListener() {
+            @Override
+            public void onItemChosen(int position) {
+                setSelection(position);
+            }
+        });
+        return true;
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        if (mSearch != null) {
+            mSearch.release();
+        }
+        super.onDetachedFromWindow();
+    }
+}
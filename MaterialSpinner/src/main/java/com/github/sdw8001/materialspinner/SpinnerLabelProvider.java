@@ -0,0 +1,21 @@
+package com.github.sdw8001.materialspinner;
+
+import java.util.List;
+
+/**
+ * Implemented by an adapter whose items should not be read one by one to
+ * search them, like a {@link PagedSpinnerAdapter}. A searchable spinner
+ * then asks it for the labels of all its items at once, on a background
+ * thread, instead of taking the {@code toString()} of every item.
+ */
+public interface SpinnerLabelProvider {
+
+    /**
+     * Returns the labels searched for the items, in the order of their
+     * positions. Called on a background thread.
+     *
+     * @param count The number of items of the adapter when the search started
+     * @return up to {@code count} labels, fewer leaving the last items out of the search
+     */
+    List<? extends CharSequence> loadSearchLabels(int count);
+}
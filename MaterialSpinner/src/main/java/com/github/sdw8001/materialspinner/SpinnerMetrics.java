@@ -0,0 +1,169 @@
+package com.github.sdw8001.materialspinner;
+
+import android.content.res.Resources;
+import android.support.v4.view.ViewCompat;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Opt-in counters of the work done by each {@link MaterialSpinner}, to find the
+ * spinners weighing on frame time in production, and a registry of the live
+ * spinners dumping them as text for bug reports.
+ * <p>
+ * Counting is enabled with {@link #setEnabled(boolean)}, typically in
+ * Application.onCreate(): only the spinners created while it is enabled are
+ * counted. The others have no counters and only pay a null check on the
+ * counted paths. Counters are updated on the main thread and must be read
+ * from it.
+ * </p>
+ */
+public final class SpinnerMetrics {
+
+    private static boolean sEnabled;
+    //Weak keys: the registry never keeps a spinner alive
+    private static final Map<MaterialSpinner, SpinnerMetrics> sLiveSpinners = new WeakHashMap<>();
+
+    private int mDraws;
+    private int mInvalidations;
+    private int mLayoutRequests;
+    private int mGetViewCalls;
+    private int mGetDropDownViewCalls;
+    private int mHintInflations;
+    private int mAnimatorFrames;
+
+    private SpinnerMetrics() {
+    }
+
+    /**
+     * Enables or disables the counters of the spinners created from now on.
+     */
+    public static void setEnabled(boolean enabled) {
+        sEnabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return sEnabled;
+    }
+
+    /**
+     * @return the counters of a new spinner, null when counting is disabled
+     */
+    static SpinnerMetrics register(MaterialSpinner spinner) {
+        if (!sEnabled) {
+            return null;
+        }
+        SpinnerMetrics metrics = new SpinnerMetrics();
+        sLiveSpinners.put(spinner, metrics);
+        return metrics;
+    }
+
+    /**
+     * @return the counters of every live spinner created while counting was enabled, one line each
+     */
+    public static String dump() {
+        List<Map.Entry<MaterialSpinner, SpinnerMetrics>> entries = new ArrayList<>(sLiveSpinners.entrySet());
+        StringBuilder dump = new StringBuilder();
+        dump.append("MaterialSpinner metrics, ").append(entries.size()).append(" live spinner(s)\n");
+        for (Map.Entry<MaterialSpinner, SpinnerMetrics> entry : entries) {
+            describe(dump, entry.getKey());
+            dump.append(' ').append(entry.getValue()).append('\n');
+        }
+        return dump.toString();
+    }
+
+    private static void describe(StringBuilder out, MaterialSpinner spinner) {
+        out.append(spinner.getClass().getSimpleName()).append('@').append(Integer.toHexString(System.identityHashCode(spinner)));
+        if (spinner.getId() != View.NO_ID) {
+            try {
+                out.append(" id/").append(spinner.getResources().getResourceEntryName(spinner.getId()));
+            } catch (Resources.NotFoundException e) {
+                out.append(" id/0x").append(Integer.toHexString(spinner.getId()));
+            }
+        }
+        if (spinner.getHint() != null) {
+            out.append(" hint=\"").append(spinner.getHint()).append('"');
+        }
+        out.append(ViewCompat.isAttachedToWindow(spinner) ? " attached" : " detached");
+    }
+
+    void onDraw() {
+        mDraws++;
+    }
+
+    void onInvalidate() {
+        mInvalidations++;
+    }
+
+    void onLayoutRequest() {
+        mLayoutRequests++;
+    }
+
+    void onGetView(boolean isDropDownView) {
+        if (isDropDownView) {
+            mGetDropDownViewCalls++;
+        } else {
+            mGetViewCalls++;
+        }
+    }
+
+    void onHintInflation() {
+        mHintInflations++;
+    }
+
+    void onAnimatorFrame() {
+        mAnimatorFrames++;
+    }
+
+    public int getDrawCount() {
+        return mDraws;
+    }
+
+    public int getInvalidationCount() {
+        return mInvalidations;
+    }
+
+    public int getLayoutRequestCount() {
+        return mLayoutRequests;
+    }
+
+    public int getGetViewCount() {
+        return mGetViewCalls;
+    }
+
+    public int getGetDropDownViewCount() {
+        return mGetDropDownViewCalls;
+    }
+
+    public int getHintInflationCount() {
+        return mHintInflations;
+    }
+
+    public int getAnimatorFrameCount() {
+        return mAnimatorFrames;
+    }
+
+    public void reset() {
+        mDraws = 0;
+        mInvalidations = 0;
+        mLayoutRequests = 0;
+        mGetViewCalls = 0;
+        mGetDropDownViewCalls = 0;
+        mHintInflations = 0;
+        mAnimatorFrames = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "draws=" + mDraws
+                + " invalidations=" + mInvalidations
+                + " layoutRequests=" + mLayoutRequests
+                + " getView=" + mGetViewCalls
+                + " getDropDownView=" + mGetDropDownViewCalls
+                + " hintInflations=" + mHintInflations
+                + " animatorFrames=" + mAnimatorFrames;
+    }
+}
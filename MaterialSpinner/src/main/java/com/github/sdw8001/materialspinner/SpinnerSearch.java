@@ -0,0 +1,334 @@
+package com.github.sdw8001.materialspinner;
+
+import android.content.Context;
+import android.content.DialogInterface;
+import android.database.DataSetObserver;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v7.app.AlertDialog;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.WindowManager;
+import android.widget.AdapterView;
+import android.widget.BaseAdapter;
+import android.widget.EditText;
+import android.widget.ListView;
+import android.widget.SpinnerAdapter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dialog replacing the dropdown of a searchable spinner: a search field over
+ * the rows of the adapter, filtered through a {@link SpinnerSearchIndex}.
+ * <p>
+ * The index is built on a background thread the first time the dialog is
+ * shown and kept until the adapter changes. The labels come from the adapter
+ * on that thread when it is a {@link SpinnerLabelProvider}. Otherwise they are
+ * the {@code toString()} of the items, which are collected on the main thread
+ * a batch per message, so that a long list does not hold up a frame, and
+ * turned into text on the background one.
+ * </p>
+ * <p>
+ * The index follows the adapter through a DataSetObserver, which the owning
+ * view unregisters with {@link #release()} when it is detached.
+ * </p>
+ */
+final class SpinnerSearch {
+
+    interface OnItemChosenListener {
+
+        /**
+         * @param position The position of the chosen item in the adapter given to show()
+         */
+        void onItemChosen(int position);
+    }
+
+    private static final int MAX_RESULTS = 100;
+    //Items read from the adapter per main thread message
+    private static final int SNAPSHOT_BATCH = 200;
+
+    private final Context mContext;
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private SpinnerAdapter mAdapter;
+    private SpinnerSearchIndex mIndex;
+    private IndexTask mIndexTask;
+    private final DataSetObserver mAdapterObserver = new DataSetObserver() {
+        @Override
+        public void onChanged() {
+            invalidateIndex();
+        }
+
+        @Override
+        public void onInvalidated() {
+            invalidateIndex();
+        }
+    };
+
+    //State of the dialog being shown
+    private AlertDialog mDialog;
+    private ResultsAdapter mResultsAdapter;
+    private SpinnerSearchIndex.Result mResult;
+    private String mQuery = "";
+
+    SpinnerSearch(Context context) {
+        mContext = context;
+    }
+
+    void show(SpinnerAdapter adapter, final OnItemChosenListener listener) {
+        setAdapter(adapter);
+        startIndexing();
+
+        View content = LayoutInflater.from(mContext).inflate(R.layout.dialog_spinner_search, null);
+        EditText queryView = (EditText) content.findViewById(R.id.ms_search_query);
+        ListView resultsView = (ListView) content.findViewById(R.id.ms_search_results);
+
+        mQuery = "";
+        mResult = null;
+        mResultsAdapter = new ResultsAdapter(adapter);
+        resultsView.setAdapter(mResultsAdapter);
+        resultsView.setOnItemClickListener(new AdapterView.OnItemClickListener() {
+            @Override
+            public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
+                int chosen = mResultsAdapter.getPosition(position);
+                mDialog.dismiss();
+                listener.onItemChosen(chosen);
+            }
+        });
+        queryView.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                mQuery = s.toString();
+                updateResults();
+            }
+        });
+        updateResults();
+
+        mDialog = new AlertDialog.Builder(mContext).setView(content).create();
+        mDialog.setOnDismissListener(new DialogInterface.OnDismissListener() {
+            @Override
+            public void onDismiss(DialogInterface dialog) {
+                //The index is kept for the next search, not the views of this one
+                if (mDialog == dialog) {
+                    mDialog = null;
+                    mResultsAdapter = null;
+                    mResult = null;
+                }
+            }
+        });
+        if (mDialog.getWindow() != null) {
+            mDialog.getWindow().setSoftInputMode(WindowManager.LayoutParams.SOFT_INPUT_STATE_VISIBLE);
+        }
+        mDialog.show();
+    }
+
+    /**
+     * Closes the dialog and lets go of the adapter and the index, for a view detached from
+     * its window. The index is built again by the next call to show().
+     */
+    void release() {
+        if (mDialog != null) {
+            mDialog.dismiss();
+        }
+        if (mAdapter != null) {
+            mAdapter.unregisterDataSetObserver(mAdapterObserver);
+            mAdapter = null;
+        }
+        invalidateIndex();
+    }
+
+    private void setAdapter(SpinnerAdapter adapter) {
+        if (adapter == mAdapter) {
+            return;
+        }
+        if (mAdapter != null) {
+            mAdapter.unregisterDataSetObserver(mAdapterObserver);
+        }
+        mAdapter = adapter;
+        mAdapter.registerDataSetObserver(mAdapterObserver);
+        invalidateIndex();
+    }
+
+    private void startIndexing() {
+        if (mIndex == null && mIndexTask == null) {
+            mIndexTask = new IndexTask(mAdapter);
+            mIndexTask.start();
+        }
+    }
+
+    private void invalidateIndex() {
+        if (mIndexTask != null) {
+            mIndexTask.stop();
+            mIndexTask = null;
+        }
+        mIndex = null;
+        mResult = null;
+        if (mDialog != null && mDialog.isShowing()) {
+            //The rows shown may be gone, they are the first ones again until the new index is ready
+            updateResults();
+            startIndexing();
+        }
+    }
+
+    /**
+     * Until the index is ready, the first rows of the adapter are shown.
+     */
+    private void updateResults() {
+        if (mResultsAdapter == null) {
+            return;
+        }
+        if (mIndex == null) {
+            mResultsAdapter.setPositions(null);
+            return;
+        }
+        //Every keystroke narrows the previous result, only its matches are looked at
+        mResult = mIndex.refine(mResult, mQuery, MAX_RESULTS);
+        mResultsAdapter.setPositions(mResult.getPositions());
+    }
+
+    /**
+     * Builds the index in the background. The items of an adapter which is not a label provider
+     * are read first, on the main thread, a batch per message: a change of the adapter in
+     * between stops the task through invalidateIndex().
+     */
+    private class IndexTask extends AsyncTask<Void, Void, SpinnerSearchIndex> implements Runnable {
+
+        private final SpinnerAdapter mSpinnerAdapter;
+        private final int mCount;
+        private final SpinnerLabelProvider mLabelProvider;
+        private final Object[] mItems;
+        private int mSnapshotCount;
+
+        IndexTask(SpinnerAdapter adapter) {
+            mSpinnerAdapter = adapter;
+            mCount = adapter.getCount();
+            if (adapter instanceof SpinnerLabelProvider) {
+                mLabelProvider = (SpinnerLabelProvider) adapter;
+                mItems = null;
+            } else {
+                mLabelProvider = null;
+                mItems = new Object[mCount];
+            }
+        }
+
+        void start() {
+            if (mItems != null) {
+                run();
+            } else {
+                executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+            }
+        }
+
+        void stop() {
+            mMainHandler.removeCallbacks(this);
+            cancel(false);
+        }
+
+        /**
+         * Reads the next batch of items, then lets the main thread go until the next one.
+         */
+        @Override
+        public void run() {
+            int end = Math.min(mCount, mSnapshotCount + SNAPSHOT_BATCH);
+            for (; mSnapshotCount < end; mSnapshotCount++) {
+                mItems[mSnapshotCount] = mSpinnerAdapter.getItem(mSnapshotCount);
+            }
+            if (mSnapshotCount < mCount) {
+                mMainHandler.post(this);
+            } else {
+                executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+            }
+        }
+
+        @Override
+        protected SpinnerSearchIndex doInBackground(Void... params) {
+            if (mLabelProvider != null) {
+                return SpinnerSearchIndex.build(mLabelProvider.loadSearchLabels(mCount));
+            }
+            List<String> labels = new ArrayList<>(mCount);
+            for (Object item : mItems) {
+                labels.add(item != null ? item.toString() : "");
+            }
+            return SpinnerSearchIndex.build(labels);
+        }
+
+        @Override
+        protected void onPostExecute(SpinnerSearchIndex index) {
+            if (mIndexTask != this) {
+                return;
+            }
+            mIndexTask = null;
+            mIndex = index;
+            mResult = null;
+            updateResults();
+        }
+    }
+
+    /**
+     * The rows of the wrapped adapter at the positions of the current result.
+     */
+    private static class ResultsAdapter extends BaseAdapter {
+
+        private final SpinnerAdapter mSpinnerAdapter;
+        private int[] mPositions;
+
+        ResultsAdapter(SpinnerAdapter spinnerAdapter) {
+            mSpinnerAdapter = spinnerAdapter;
+        }
+
+        /**
+         * @param positions The positions to show, null for the first rows of the adapter
+         */
+        void setPositions(int[] positions) {
+            mPositions = positions;
+            notifyDataSetChanged();
+        }
+
+        int getPosition(int row) {
+            return mPositions != null ? mPositions[row] : row;
+        }
+
+        @Override
+        public int getCount() {
+            return mPositions != null ? mPositions.length : Math.min(MAX_RESULTS, mSpinnerAdapter.getCount());
+        }
+
+        @Override
+        public Object getItem(int row) {
+            return mSpinnerAdapter.getItem(getPosition(row));
+        }
+
+        @Override
+        public long getItemId(int row) {
+            return mSpinnerAdapter.getItemId(getPosition(row));
+        }
+
+        @Override
+        public int getViewTypeCount() {
+            return mSpinnerAdapter.getViewTypeCount();
+        }
+
+        @Override
+        public int getItemViewType(int row) {
+            return mSpinnerAdapter.getItemViewType(getPosition(row));
+        }
+
+        @Override
+        public View getView(int row, View convertView, ViewGroup parent) {
+            return mSpinnerAdapter.getDropDownView(getPosition(row), convertView, parent);
+        }
+    }
+}
@@ -0,0 +1,484 @@
+package com.github.sdw8001.materialspinner;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Search index over the labels of a spinner, matching a query against the
+ * start of the labels and of their words (prefix index) and, from three
+ * characters on, against their trigrams (fuzzy index).
+ * <p>
+ * Building the index costs a pass over every label and should be done off
+ * the main thread. Queries then only look at the matching labels, and
+ * {@link #refine(Result, String, int)} only rescores the candidates of the
+ * previous query when the user keeps typing and labels matching from the
+ * start of a word fill the results. Queries reuse scratch arrays:
+ * they must all be made from the same thread.
+ * </p>
+ */
+public final class SpinnerSearchIndex {
+
+    //A fuzzy match shares at least this part of the query trigrams
+    private static final float MIN_TRIGRAM_RATIO = 0.5f;
+
+    private static final int SCORE_LABEL_PREFIX = 3000;
+    private static final int SCORE_WORD_PREFIX = 2000;
+    private static final int SCORE_FUZZY = 1000;
+
+    private static final int[] EMPTY = new int[0];
+
+    private final String[] mLabels;
+
+    //Prefix index: every word start of every label, as the position of the label and the
+    //offset of the word, sorted by the text from the word on
+    private final int[] mKeyPositions;
+    private final int[] mKeyOffsets;
+
+    //Fuzzy index: the positions of the labels containing each trigram, ascending
+    private final Map<Long, int[]> mTrigrams;
+
+    //Scratch state of the queries
+    private final int[] mCounts;
+    private final boolean[] mMarks;
+
+    private SpinnerSearchIndex(String[] labels, int[] keyPositions, int[] keyOffsets, Map<Long, int[]> trigrams) {
+        mLabels = labels;
+        mKeyPositions = keyPositions;
+        mKeyOffsets = keyOffsets;
+        mTrigrams = trigrams;
+        mCounts = new int[labels.length];
+        mMarks = new boolean[labels.length];
+    }
+
+    /**
+     * Builds the index of the given labels, the position of a label being its
+     * position in the list. Call it from a background thread for long lists.
+     */
+    public static SpinnerSearchIndex build(List<? extends CharSequence> labels) {
+        int count = labels.size();
+        final String[] normalized = new String[count];
+        final IntList keyPositions = new IntList();
+        final IntList keyOffsets = new IntList();
+        Map<Long, IntList> trigrams = new HashMap<>();
+
+        for (int position = 0; position < count; position++) {
+            CharSequence label = labels.get(position);
+            String text = normalize(label != null ? label.toString() : "");
+            normalized[position] = text;
+            for (int i = 0; i < text.length(); i++) {
+                if (!Character.isWhitespace(text.charAt(i)) && (i == 0 || Character.isWhitespace(text.charAt(i - 1)))) {
+                    keyPositions.add(position);
+                    keyOffsets.add(i);
+                }
+            }
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                Long trigram = trigram(text, i);
+                IntList postings = trigrams.get(trigram);
+                if (postings == null) {
+                    postings = new IntList();
+                    trigrams.put(trigram, postings);
+                }
+                postings.addOnce(position);
+            }
+        }
+
+        Integer[] order = new Integer[keyPositions.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return compareFrom(normalized[keyPositions.get(a)], keyOffsets.get(a),
+                        normalized[keyPositions.get(b)], keyOffsets.get(b));
+            }
+        });
+        int[] sortedPositions = new int[order.length];
+        int[] sortedOffsets = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedPositions[i] = keyPositions.get(order[i]);
+            sortedOffsets[i] = keyOffsets.get(order[i]);
+        }
+
+        Map<Long, int[]> postings = new HashMap<>(trigrams.size());
+        for (Map.Entry<Long, IntList> entry : trigrams.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().toArray());
+        }
+        return new SpinnerSearchIndex(normalized, sortedPositions, sortedOffsets, postings);
+    }
+
+    /**
+     * @return the number of indexed labels
+     */
+    public int size() {
+        return mLabels.length;
+    }
+
+    /**
+     * Finds the labels matching the given query.
+     *
+     * @param query The text typed by the user
+     * @param maxResults The number of ranked positions to return
+     * @return the best matches first, labels matching from their start, then
+     * from the start of a word, then fuzzy matches
+     */
+    public Result search(String query, int maxResults) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return all(normalized, maxResults);
+        }
+
+        //Prefix matches, from the sorted word starts
+        int prefixMatches = 0;
+        int from = lowerBound(normalized);
+        for (int i = from; i < mKeyPositions.length
+                && mLabels[mKeyPositions[i]].startsWith(normalized, mKeyOffsets[i]); i++) {
+            if (!mMarks[mKeyPositions[i]]) {
+                mMarks[mKeyPositions[i]] = true;
+                prefixMatches++;
+            }
+        }
+
+        //Fuzzy matches, counting the query trigrams of each label, when the prefix ones do not fill the results
+        long[] queryTrigrams = trigrams(normalized);
+        if (queryTrigrams.length > 0 && prefixMatches < maxResults) {
+            int minShared = (int) Math.ceil(queryTrigrams.length * MIN_TRIGRAM_RATIO);
+            IntList touched = new IntList();
+            for (long trigram : queryTrigrams) {
+                int[] postings = mTrigrams.get(trigram);
+                if (postings == null) {
+                    continue;
+                }
+                for (int position : postings) {
+                    if (mCounts[position]++ == 0) {
+                        touched.add(position);
+                    }
+                }
+            }
+            for (int i = 0; i < touched.size(); i++) {
+                int position = touched.get(i);
+                if (mCounts[position] >= minShared) {
+                    mMarks[position] = true;
+                }
+                mCounts[position] = 0;
+            }
+        }
+
+        IntList candidates = new IntList();
+        for (int position = 0; position < mMarks.length; position++) {
+            if (mMarks[position]) {
+                candidates.add(position);
+                mMarks[position] = false;
+            }
+        }
+        return rank(normalized, candidates.toArray(), queryTrigrams, maxResults);
+    }
+
+    /**
+     * Finds the labels matching a query typed after the previous one, with the
+     * same result as {@link #search(String, int)}. When the new query extends the
+     * previous one and enough labels match it from the start of a word, only the
+     * labels which matched the previous one are looked at.
+     */
+    public Result refine(Result previous, String query, int maxResults) {
+        String normalized = normalize(query);
+        if (previous == null || previous.mCandidates == null || normalized.isEmpty()
+                || !normalized.startsWith(previous.mQuery)) {
+            return search(query, maxResults);
+        }
+        long[] queryTrigrams = trigrams(normalized);
+        if (queryTrigrams.length > 0 && countPrefixMatches(previous.mCandidates, normalized, maxResults) < maxResults) {
+            //Fuzzy matches do not narrow down: a label can share too few trigrams with the
+            //previous query and enough with this one, or not have been looked at at all
+            return search(query, maxResults);
+        }
+        return rank(normalized, previous.mCandidates, queryTrigrams, maxResults);
+    }
+
+    /**
+     * Counts the candidates matching the query from the start of a word, up to the given limit.
+     */
+    private int countPrefixMatches(int[] candidates, String query, int limit) {
+        int matches = 0;
+        for (int i = 0; i < candidates.length && matches < limit; i++) {
+            if (prefixScore(mLabels[candidates[i]], query) > 0) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private Result all(String query, int maxResults) {
+        int[] positions = new int[Math.min(maxResults, mLabels.length)];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        return new Result(query, positions, null, mLabels.length);
+    }
+
+    /**
+     * Scores the candidates and keeps the best ones in a heap of maxResults entries,
+     * the candidates still matching being kept for the next refinement. Fuzzy matches
+     * are only looked for when the prefix matches do not fill the results.
+     */
+    private Result rank(String query, int[] candidates, long[] queryTrigrams, int maxResults) {
+        int capacity = Math.max(0, maxResults);
+        int[] heapScores = new int[capacity];
+        int[] heapPositions = new int[capacity];
+        int heapSize = 0;
+        IntList matching = new IntList();
+
+        //The scores are kept by candidate index in the scratch counts, reset on the way
+        int prefixMatches = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            mCounts[i] = prefixScore(mLabels[candidates[i]], query);
+            if (mCounts[i] > 0) {
+                prefixMatches++;
+            }
+        }
+        boolean fuzzy = queryTrigrams.length > 0 && prefixMatches < capacity;
+
+        for (int i = 0; i < candidates.length; i++) {
+            int position = candidates[i];
+            int score = mCounts[i];
+            mCounts[i] = 0;
+            if (score == 0 && fuzzy) {
+                score = fuzzyScore(mLabels[position], queryTrigrams);
+            }
+            if (score == 0) {
+                continue;
+            }
+            matching.add(position);
+            if (capacity == 0) {
+                continue;
+            }
+            if (heapSize < capacity) {
+                heapScores[heapSize] = score;
+                heapPositions[heapSize] = position;
+                siftUp(heapScores, heapPositions, heapSize++);
+            } else if (isBetter(score, position, heapScores[0], heapPositions[0])) {
+                heapScores[0] = score;
+                heapPositions[0] = position;
+                siftDown(heapScores, heapPositions, heapSize);
+            }
+        }
+
+        //Emptying the min-heap gives the results from the worst to the best
+        int[] positions = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            positions[i] = heapPositions[0];
+            heapScores[0] = heapScores[i];
+            heapPositions[0] = heapPositions[i];
+            siftDown(heapScores, heapPositions, i);
+        }
+        return new Result(query, positions, matching.toArray(), matching.size());
+    }
+
+    private static int prefixScore(String label, String query) {
+        if (label.startsWith(query)) {
+            return SCORE_LABEL_PREFIX;
+        }
+        for (int i = label.indexOf(query); i > 0; i = label.indexOf(query, i + 1)) {
+            if (Character.isWhitespace(label.charAt(i - 1))) {
+                return SCORE_WORD_PREFIX;
+            }
+        }
+        return 0;
+    }
+
+    private static int fuzzyScore(String label, long[] queryTrigrams) {
+        int shared = 0;
+        for (long trigram : queryTrigrams) {
+            if (containsTrigram(label, trigram)) {
+                shared++;
+            }
+        }
+        float ratio = shared / (float) queryTrigrams.length;
+        return ratio >= MIN_TRIGRAM_RATIO ? (int) (SCORE_FUZZY * ratio) : 0;
+    }
+
+    private static boolean containsTrigram(String label, long trigram) {
+        for (int i = 0; i + 3 <= label.length(); i++) {
+            if (trigram(label, i) == trigram) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //Higher score first, then lower position (the order of the list)
+    private static boolean isBetter(int score, int position, int otherScore, int otherPosition) {
+        return score != otherScore ? score > otherScore : position < otherPosition;
+    }
+
+    private static void siftUp(int[] scores, int[] positions, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!isBetter(scores[parent], positions[parent], scores[index], positions[index])) {
+                break;
+            }
+            swap(scores, positions, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(int[] scores, int[] positions, int size) {
+        int index = 0;
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && isBetter(scores[worst], positions[worst], scores[left], positions[left])) {
+                worst = left;
+            }
+            if (right < size && isBetter(scores[worst], positions[worst], scores[right], positions[right])) {
+                worst = right;
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(scores, positions, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(int[] scores, int[] positions, int i, int j) {
+        int score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+        int position = positions[i];
+        positions[i] = positions[j];
+        positions[j] = position;
+    }
+
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = mKeyPositions.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareFrom(mLabels[mKeyPositions[middle]], mKeyOffsets[middle], prefix, 0) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Compares the texts from the given offsets on, as {@link String#compareTo(String)} compares
+     * the substrings, without making them.
+     */
+    private static int compareFrom(String a, int aOffset, String b, int bOffset) {
+        int aLength = a.length() - aOffset;
+        int bLength = b.length() - bOffset;
+        int length = Math.min(aLength, bLength);
+        for (int i = 0; i < length; i++) {
+            char aChar = a.charAt(aOffset + i);
+            char bChar = b.charAt(bOffset + i);
+            if (aChar != bChar) {
+                return aChar - bChar;
+            }
+        }
+        return aLength - bLength;
+    }
+
+    private static String normalize(String text) {
+        return text != null ? text.trim().toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static long trigram(String text, int index) {
+        return ((long) text.charAt(index) << 32) | ((long) text.charAt(index + 1) << 16) | text.charAt(index + 2);
+    }
+
+    private static long[] trigrams(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] trigrams = new long[text.length() - 2];
+        int count = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            long trigram = trigram(text, i);
+            boolean duplicate = false;
+            for (int j = 0; j < count && !duplicate; j++) {
+                duplicate = trigrams[j] == trigram;
+            }
+            if (!duplicate) {
+                trigrams[count++] = trigram;
+            }
+        }
+        return Arrays.copyOf(trigrams, count);
+    }
+
+    /**
+     * The ranked positions matching a query, and what is needed to refine it.
+     */
+    public static final class Result {
+
+        private final String mQuery;
+        private final int[] mPositions;
+        //Every position matching the query, ascending, null when every label matches
+        private final int[] mCandidates;
+        private final int mMatchCount;
+
+        private Result(String query, int[] positions, int[] candidates, int matchCount) {
+            mQuery = query;
+            mPositions = positions;
+            mCandidates = candidates;
+            mMatchCount = matchCount;
+        }
+
+        /**
+         * @return the positions of the best matches, the best first
+         */
+        public int[] getPositions() {
+            return mPositions;
+        }
+
+        /**
+         * @return the number of labels matching the query, ranked or not
+         */
+        public int getMatchCount() {
+            return mMatchCount;
+        }
+    }
+
+    /**
+     * Growable int array, to avoid boxing the positions.
+     */
+    private static final class IntList {
+
+        private int[] mValues = EMPTY;
+        private int mSize;
+
+        void add(int value) {
+            if (mSize == mValues.length) {
+                mValues = Arrays.copyOf(mValues, Math.max(8, mSize * 2));
+            }
+            mValues[mSize++] = value;
+        }
+
+        //Positions are added in order, a repeated one can only be the last
+        void addOnce(int value) {
+            if (mSize == 0 || mValues[mSize - 1] != value) {
+                add(value);
+            }
+        }
+
+        int get(int index) {
+            return mValues[index];
+        }
+
+        int size() {
+            return mSize;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(mValues, mSize);
+        }
+    }
+}
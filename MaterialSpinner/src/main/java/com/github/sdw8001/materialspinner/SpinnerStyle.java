@@ -0,0 +1,179 @@
+package com.github.sdw8001.materialspinner;
+
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Typeface;
+import android.support.v4.util.LruCache;
+import android.text.TextPaint;
+
+/**
+ * Drawing objects and geometry shared by every {@link MaterialSpinner}
+ * with the same text sizes, dimensions, typeface and arrow size (flyweight).
+ * <p>
+ * The paints are shared between instances: every drawing pass sets the
+ * color it needs before using them, and they are only used from the UI
+ * thread.
+ * </p>
+ * <p>
+ * Only the most recently used styles are kept. A spinner holds on to its
+ * style, an evicted style is only no longer shared with new spinners.
+ * </p>
+ */
+final class SpinnerStyle {
+
+    //Apps use a handful of styles, the rest come from per-instance arrow sizes and typefaces
+    static final int MAX_SIZE = 16;
+    private static final LruCache<Key, SpinnerStyle> sStyles = new LruCache<>(MAX_SIZE);
+
+    final Paint paint;
+    final TextPaint textPaint;
+    //Hint drawn over the spinner, see MaterialSpinner.HINT_MODE_OVERLAY
+    final TextPaint hintPaint;
+    //Arrow pointing down, built once with its top right corner at (0, 0)
+    final Path selectorPath;
+
+    //Label font metrics
+    final float lineHeight;
+    final float ascent;
+    //From the vertical center of the content to the hint baseline
+    final float hintBaselineOffset;
+
+    //@see dimens.xml
+    final int underlineTopSpacing;
+    final int underlineBottomSpacing;
+    final int errorLabelSpacing;
+    final int floatingLabelTopSpacing;
+    final int floatingLabelBottomSpacing;
+    final int floatingLabelInsideSpacing;
+    final int minContentHeight;
+
+    final float arrowSize;
+
+    private SpinnerStyle(ResolvedStyle resolvedStyle, Typeface typeface, float arrowSize) {
+        paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+        textPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        textPaint.setTextSize(resolvedStyle.labelTextSize);
+        if (typeface != null) {
+            textPaint.setTypeface(typeface);
+        }
+        Paint.FontMetrics textMetrics = textPaint.getFontMetrics();
+        lineHeight = textMetrics.descent - textMetrics.ascent;
+        ascent = textMetrics.ascent;
+
+        hintPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        hintPaint.setTextSize(resolvedStyle.hintTextSize);
+        if (typeface != null) {
+            hintPaint.setTypeface(typeface);
+        }
+        Paint.FontMetrics hintMetrics = hintPaint.getFontMetrics();
+        hintBaselineOffset = -(hintMetrics.ascent + hintMetrics.descent) / 2;
+
+        selectorPath = new Path();
+        selectorPath.setFillType(Path.FillType.EVEN_ODD);
+        selectorPath.moveTo(0, 0);
+        selectorPath.lineTo(-arrowSize, 0);
+        selectorPath.lineTo(-arrowSize / 2, arrowSize / 2);
+        selectorPath.close();
+
+        underlineTopSpacing = resolvedStyle.underlineTopSpacing;
+        underlineBottomSpacing = resolvedStyle.underlineBottomSpacing;
+        errorLabelSpacing = resolvedStyle.errorLabelSpacing;
+        floatingLabelTopSpacing = resolvedStyle.floatingLabelTopSpacing;
+        floatingLabelBottomSpacing = resolvedStyle.floatingLabelBottomSpacing;
+        floatingLabelInsideSpacing = resolvedStyle.floatingLabelInsideSpacing;
+        minContentHeight = resolvedStyle.minContentHeight;
+
+        this.arrowSize = arrowSize;
+    }
+
+    /**
+     * Returns the shared style for the given resolved attributes, typeface
+     * and arrow size, creating it on the first call.
+     */
+    static synchronized SpinnerStyle obtain(ResolvedStyle resolvedStyle, Typeface typeface, float arrowSize) {
+        Key key = new Key(resolvedStyle, typeface, arrowSize);
+        SpinnerStyle style = sStyles.get(key);
+        if (style == null) {
+            style = new SpinnerStyle(resolvedStyle, typeface, arrowSize);
+            sStyles.put(key, style);
+        }
+        return style;
+    }
+
+    static synchronized int getCount() {
+        return sStyles.size();
+    }
+
+    /**
+     * The values a style is built from: themes resolving to the same values share
+     * a style, and a new theme instance (a recreated activity) adds no entry.
+     */
+    private static final class Key {
+
+        private final int labelTextSize;
+        private final int hintTextSize;
+        private final int underlineTopSpacing;
+        private final int underlineBottomSpacing;
+        private final int errorLabelSpacing;
+        private final int floatingLabelTopSpacing;
+        private final int floatingLabelBottomSpacing;
+        private final int floatingLabelInsideSpacing;
+        private final int minContentHeight;
+        //Shared by TypefaceCache, compared by identity
+        private final Typeface typeface;
+        private final float arrowSize;
+
+        Key(ResolvedStyle resolvedStyle, Typeface typeface, float arrowSize) {
+            labelTextSize = resolvedStyle.labelTextSize;
+            hintTextSize = resolvedStyle.hintTextSize;
+            underlineTopSpacing = resolvedStyle.underlineTopSpacing;
+            underlineBottomSpacing = resolvedStyle.underlineBottomSpacing;
+            errorLabelSpacing = resolvedStyle.errorLabelSpacing;
+            floatingLabelTopSpacing = resolvedStyle.floatingLabelTopSpacing;
+            floatingLabelBottomSpacing = resolvedStyle.floatingLabelBottomSpacing;
+            floatingLabelInsideSpacing = resolvedStyle.floatingLabelInsideSpacing;
+            minContentHeight = resolvedStyle.minContentHeight;
+            this.typeface = typeface;
+            this.arrowSize = arrowSize;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return labelTextSize == key.labelTextSize
+                    && hintTextSize == key.hintTextSize
+                    && underlineTopSpacing == key.underlineTopSpacing
+                    && underlineBottomSpacing == key.underlineBottomSpacing
+                    && errorLabelSpacing == key.errorLabelSpacing
+                    && floatingLabelTopSpacing == key.floatingLabelTopSpacing
+                    && floatingLabelBottomSpacing == key.floatingLabelBottomSpacing
+                    && floatingLabelInsideSpacing == key.floatingLabelInsideSpacing
+                    && minContentHeight == key.minContentHeight
+                    && typeface == key.typeface
+                    && Float.compare(arrowSize, key.arrowSize) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = labelTextSize;
+            result = 31 * result + hintTextSize;
+            result = 31 * result + underlineTopSpacing;
+            result = 31 * result + underlineBottomSpacing;
+            result = 31 * result + errorLabelSpacing;
+            result = 31 * result + floatingLabelTopSpacing;
+            result = 31 * result + floatingLabelBottomSpacing;
+            result = 31 * result + floatingLabelInsideSpacing;
+            result = 31 * result + minContentHeight;
+            result = 31 * result + System.identityHashCode(typeface);
+            result = 31 * result + Float.floatToIntBits(arrowSize);
+            return result;
+        }
+    }
+}
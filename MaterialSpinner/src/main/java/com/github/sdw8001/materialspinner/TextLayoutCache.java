@@ -0,0 +1,167 @@
+package com.github.sdw8001.materialspinner;
+
+import android.os.Process;
+import android.support.v4.util.LruCache;
+import android.text.Layout;
+import android.text.Spanned;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of the {@link StaticLayout}s of the dropdown rows, filled on
+ * a background thread by {@link #precompute(List, TextPaint, int)} so that
+ * binding a row on the main thread only picks up a layout whose text is
+ * already shaped and broken into lines. Safe to use from any thread.
+ * <p>
+ * The background thread is the library's own, at background priority, so
+ * that precomputing never delays nor fills the queue of the app's
+ * {@link android.os.AsyncTask}s.
+ * </p>
+ * <p>
+ * Layouts are keyed by (text, width, text size, typeface) and are drawn
+ * with the paint they were built with. Each cached layout is built with a
+ * copy of the paint of its own, which no background thread touches once the
+ * layout is cached: callers set the color on {@link StaticLayout#getPaint()}
+ * before drawing, on the main thread.
+ * </p>
+ *
+ * @see PrecomputedLabelView
+ */
+public final class TextLayoutCache {
+
+    //Bound of the cache, in characters of the cached texts
+    static final int MAX_CHARS = 64 * 1024;
+    //Part of the cache one list can precompute, the rest is left to the rows laid out on bind
+    static final int MAX_PRECOMPUTED_CHARS = MAX_CHARS / 2;
+    private static final long WORKER_KEEP_ALIVE_SECONDS = 5;
+
+    private static final ThreadPoolExecutor sWorker = new ThreadPoolExecutor(1, 1,
+            WORKER_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }
+            }, "TextLayoutCache");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    static {
+        //No thread is kept once the lists are laid out
+        sWorker.allowCoreThreadTimeOut(true);
+    }
+
+    private static final LruCache<LayoutKey, StaticLayout> sLayouts = new LruCache<LayoutKey, StaticLayout>(MAX_CHARS) {
+        @Override
+        protected int sizeOf(LayoutKey key, StaticLayout layout) {
+            return key.text.length() + 1;
+        }
+    };
+
+    private TextLayoutCache() {
+    }
+
+    /**
+     * @return the cached layout, or null if it was not built yet
+     */
+    public static StaticLayout get(CharSequence text, TextPaint paint, int width) {
+        if (text instanceof Spanned) {
+            return null;
+        }
+        return sLayouts.get(new LayoutKey(text.toString(), width, paint.getTextSize(), paint.getTypeface()));
+    }
+
+    /**
+     * Returns the layout of the text, building it on the calling thread on a miss.
+     * Styled texts are not cached, their spans would not be part of the key.
+     */
+    public static StaticLayout obtain(CharSequence text, TextPaint paint, int width) {
+        if (text instanceof Spanned) {
+            return build(text, paint, width);
+        }
+        LayoutKey key = new LayoutKey(text.toString(), width, paint.getTextSize(), paint.getTypeface());
+        StaticLayout layout = sLayouts.get(key);
+        if (layout == null) {
+            //Not the caller's paint, which another thread may be measuring or drawing with
+            layout = build(key.text, copy(paint), width);
+            sLayouts.put(key, layout);
+        }
+        return layout;
+    }
+
+    /**
+     * Builds the layouts of the given texts on the background thread, in order, skipping
+     * the cached ones. Only the first texts are laid out, up to half of the cache: they
+     * are the rows shown first, and laying more out would evict them. The paint is
+     * copied, it can be changed afterwards.
+     */
+    public static void precompute(List<? extends CharSequence> texts, TextPaint paint, int width) {
+        if (width <= 0) {
+            return;
+        }
+        List<CharSequence> leading = new ArrayList<>();
+        int chars = 0;
+        for (CharSequence text : texts) {
+            if (text == null || text instanceof Spanned) {
+                continue;
+            }
+            chars += text.length() + 1;
+            if (chars > MAX_PRECOMPUTED_CHARS) {
+                break;
+            }
+            leading.add(text);
+        }
+        //The task lays out with its own paint, a Paint is not thread safe
+        sWorker.execute(new PrecomputeTask(leading, copy(paint), width));
+    }
+
+    public static int size() {
+        return sLayouts.size();
+    }
+
+    public static void clear() {
+        sLayouts.evictAll();
+    }
+
+    private static TextPaint copy(TextPaint paint) {
+        TextPaint copy = new TextPaint();
+        copy.set(paint);
+        return copy;
+    }
+
+    private static StaticLayout build(CharSequence text, TextPaint paint, int width) {
+        return new StaticLayout(text, paint, Math.max(0, width), Layout.Alignment.ALIGN_NORMAL, 1.0f, 0.0f, true);
+    }
+
+    private static class PrecomputeTask implements Runnable {
+
+        private final List<CharSequence> mTexts;
+        private final TextPaint mPaint;
+        private final int mWidth;
+
+        PrecomputeTask(List<CharSequence> texts, TextPaint paint, int width) {
+            mTexts = texts;
+            mPaint = paint;
+            mWidth = width;
+        }
+
+        @Override
+        public void run() {
+            for (CharSequence text : mTexts) {
+                obtain(text, mPaint, mWidth);
+            }
+        }
+    }
+}
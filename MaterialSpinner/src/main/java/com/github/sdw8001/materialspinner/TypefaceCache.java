@@ -0,0 +1,97 @@
+package com.github.sdw8001.materialspinner;
+
+import android.content.Context;
+import android.graphics.Typeface;
+import android.os.AsyncTask;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process-wide registry of the typefaces loaded from the assets, keyed by
+ * asset path. Used by {@link MaterialSpinner} for the {@code s_typeface}
+ * attribute so that a font file is read and parsed only once, whatever
+ * the number of spinners using it.
+ */
+public final class TypefaceCache {
+
+    private static final ConcurrentHashMap<String, Typeface> sTypefaces = new ConcurrentHashMap<>();
+
+    private static final AtomicInteger sHitCount = new AtomicInteger();
+    private static final AtomicInteger sMissCount = new AtomicInteger();
+
+    private TypefaceCache() {
+    }
+
+    /**
+     * Returns the typeface of the given asset, loading it on the first call.
+     * Safe to call from any thread.
+     *
+     * @param context Any context, only its application assets are used
+     * @param assetPath The path of the font file in the assets
+     * @return the shared typeface of this asset
+     */
+    public static Typeface get(Context context, String assetPath) {
+        Typeface typeface = sTypefaces.get(assetPath);
+        if (typeface != null) {
+            sHitCount.incrementAndGet();
+            return typeface;
+        }
+        sMissCount.incrementAndGet();
+        typeface = Typeface.createFromAsset(context.getApplicationContext().getAssets(), assetPath);
+        Typeface previous = sTypefaces.putIfAbsent(assetPath, typeface);
+        return previous != null ? previous : typeface;
+    }
+
+    /**
+     * Loads the given fonts on a background thread, typically from
+     * {@code Application.onCreate()}, so that the first screen showing them
+     * does not pay for it.
+     *
+     * @param context Any context, only its application assets are used
+     * @param assetPaths The paths of the font files in the assets
+     */
+    public static void preload(Context context, final String... assetPaths) {
+        final Context appContext = context.getApplicationContext();
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (String assetPath : assetPaths) {
+                    if (!sTypefaces.containsKey(assetPath)) {
+                        get(appContext, assetPath);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * @return the number of lookups served from the cache
+     */
+    public static int getHitCount() {
+        return sHitCount.get();
+    }
+
+    /**
+     * @return the number of lookups which had to load the font file
+     */
+    public static int getMissCount() {
+        return sMissCount.get();
+    }
+
+    /**
+     * @return the number of typefaces currently held
+     */
+    public static int size() {
+        return sTypefaces.size();
+    }
+
+    /**
+     * Drops every cached typeface and resets the counters.
+     */
+    public static void clear() {
+        sTypefaces.clear();
+        sHitCount.set(0);
+        sMissCount.set(0);
+    }
+}
@@ -0,0 +1,86 @@
+package com.github.sdw8001.materialspinner;
+
+import android.content.Context;
+import android.database.DataSetObserver;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class ChangeDetectingSpinnerAdapterTest {
+
+    private Context context;
+    private MaterialSpinner spinner;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+        context.setTheme(R.style.Theme_AppCompat_Light);
+        spinner = new MaterialSpinner(context);
+    }
+
+    @Test
+    public void submitList_keepsSelectionByIdAndSkipsUnchangedLists() {
+        ChangeDetectingSpinnerAdapter.ItemCallback<String> callback = new ChangeDetectingSpinnerAdapter.ItemCallback<String>() {
+            @Override
+            public boolean areItemsTheSame(String oldItem, String newItem) {
+                return oldItem.equals(newItem);
+            }
+
+            @Override
+            public boolean areContentsTheSame(String oldItem, String newItem) {
+                return oldItem.equals(newItem);
+            }
+
+            @Override
+            public long getItemId(String item) {
+                return item.hashCode();
+            }
+        };
+        ChangeDetectingSpinnerAdapter<String> adapter = new ChangeDetectingSpinnerAdapter<String>(callback, MaterialSpinnerTest.DIRECT_EXECUTOR) {
+            @Override
+            public View getView(int position, View convertView, ViewGroup parent) {
+                TextView view = convertView != null ? (TextView) convertView : new TextView(parent.getContext());
+                view.setText(getItem(position));
+                return view;
+            }
+        };
+        final int[] changes = {0};
+        adapter.registerDataSetObserver(new DataSetObserver() {
+            @Override
+            public void onChanged() {
+                changes[0]++;
+            }
+        });
+        adapter.submitList(Arrays.asList("One", "Two", "Three"));
+        spinner.setHint("Hint");
+        spinner.setAdapter(adapter);
+        MaterialSpinnerTest.layout(spinner);
+        spinner.setSelection(2);
+        MaterialSpinnerTest.layout(spinner);
+
+        changes[0] = 0;
+        adapter.submitList(Arrays.asList("One", "Two", "Three"));
+        Robolectric.flushForegroundThreadScheduler();
+        assertEquals(0, changes[0]);
+
+        adapter.submitList(Arrays.asList("Zero", "One", "Two", "Three"));
+        Robolectric.flushForegroundThreadScheduler();
+        MaterialSpinnerTest.layout(spinner);
+        assertEquals(1, changes[0]);
+        assertEquals("Two", spinner.getSelectedItem());
+    }
+}
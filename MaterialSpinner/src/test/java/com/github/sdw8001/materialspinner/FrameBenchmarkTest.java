@@ -0,0 +1,287 @@
+package com.github.sdw8001.materialspinner;
+
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewParent;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Cost of one frame of each widget while it animates: wall time, allocations and the
+ * invalidations and layout requests reaching the window. Each scenario starts its animation
+ * on a widget shown in an activity, then advances the clock one frame at a time, laying out
+ * when requested and drawing on a canvas which draws nothing.
+ * <p>
+ * The numbers are written to {@link #REPORT}, nothing is asserted on them: wall times are
+ * those of the JVM running Robolectric and allocations depend on its JIT, so they vary from
+ * one machine to the next. Compare the reports of two runs on the same machine.
+ * </p>
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class FrameBenchmarkTest {
+
+    private static final long FRAME_MS = 16;
+    //About two seconds, the marquee starts after one
+    private static final int FRAMES = 120;
+    private static final int WIDTH = 480;
+    private static final File REPORT = new File("build/reports/frame-benchmark/frame-costs.json");
+    private static final String LONG_ERROR = "A very very very long error message that has to be broken into several lines to be shown";
+    private static final List<String> ITEMS = Arrays.asList("Prompt", "One", "Two", "Three");
+
+    @Test
+    public void frameCosts_writeReport() throws IOException {
+        Context context = RuntimeEnvironment.application;
+        context.setTheme(R.style.Theme_AppCompat_Light);
+
+        List<Scenario> scenarios = Arrays.asList(
+                new Scenario("MaterialSpinner floating label") {
+                    @Override
+                    View create(Context context) {
+                        MaterialSpinner spinner = new MaterialSpinner(context);
+                        spinner.setHint("Hint");
+                        spinner.setFloatingLabelText("Label");
+                        spinner.setAdapter(newAdapter(context));
+                        return spinner;
+                    }
+
+                    @Override
+                    void start(View view) {
+                        ((MaterialSpinner) view).setSelection(1);
+                    }
+                },
+                new Scenario("MaterialSpinner error marquee") {
+                    @Override
+                    View create(Context context) {
+                        return new MaterialSpinner(context, Robolectric.buildAttributeSet()
+                                .addAttribute(R.attr.s_multiline, "false")
+                                .build());
+                    }
+
+                    @Override
+                    void start(View view) {
+                        ((MaterialSpinner) view).setError(LONG_ERROR);
+                    }
+                },
+                new Scenario("MaterialSpinner multiline error") {
+                    @Override
+                    View create(Context context) {
+                        return new MaterialSpinner(context);
+                    }
+
+                    @Override
+                    void start(View view) {
+                        ((MaterialSpinner) view).setError(LONG_ERROR);
+                    }
+                },
+                new Scenario("LabelledSpinner selection") {
+                    @Override
+                    View create(Context context) {
+                        LabelledSpinner spinner = new LabelledSpinner(context);
+                        spinner.setLabelText("Label");
+                        spinner.setItemsArray(ITEMS);
+                        spinner.setDefaultErrorEnabled(true);
+                        //The default error is only shown to a listener
+                        spinner.setOnItemChosenListener(new LabelledSpinner.OnItemChosenListener() {
+                            @Override
+                            public void onItemChosen(View labelledSpinner, AdapterView<?> adapterView, View itemView, int position, long id) {
+                            }
+
+                            @Override
+                            public void onNothingChosen(View labelledSpinner, AdapterView<?> adapterView) {
+                            }
+                        });
+                        return spinner;
+                    }
+
+                    @Override
+                    void start(View view) {
+                        ((LabelledSpinner) view).setSelection(2);
+                    }
+                },
+                new Scenario("FlippableView flip") {
+                    @Override
+                    View create(Context context) {
+                        return new FlippableView(context, newSide(context, "Front"), newSide(context, "Back"));
+                    }
+
+                    @Override
+                    void start(View view) {
+                        ((FlippableView) view).flip();
+                    }
+                });
+
+        List<FrameStats> results = new ArrayList<>();
+        for (Scenario scenario : scenarios) {
+            //The first run loads classes and resources, only the second one is kept
+            run(context, scenario);
+            results.add(run(context, scenario));
+        }
+        writeReport(results);
+        assertTrue(REPORT.isFile());
+    }
+
+    private static FrameStats run(Context context, Scenario scenario) {
+        CountingHost host = new CountingHost(context);
+        host.addView(scenario.create(context));
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        activity.setContentView(host);
+        Canvas canvas = new MaterialSpinnerTest.NoOpCanvas();
+        //Settle the first layout and the deferred work of the construction
+        frame(host, canvas);
+        Robolectric.getForegroundThreadScheduler().advanceBy(1, TimeUnit.SECONDS);
+        frame(host, canvas);
+
+        host.invalidations = 0;
+        host.layoutRequests = 0;
+        long worstFrame = 0;
+        long allocatedBefore = MaterialSpinnerTest.allocatedBytes();
+        long start = System.nanoTime();
+        scenario.start(host.getChildAt(0));
+        for (int i = 0; i < FRAMES; i++) {
+            long frameStart = System.nanoTime();
+            frame(host, canvas);
+            worstFrame = Math.max(worstFrame, System.nanoTime() - frameStart);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = MaterialSpinnerTest.allocatedBytes() - allocatedBefore;
+
+        //Detached, the widget stops animating and does not weigh on the next scenario
+        ((ViewGroup) host.getParent()).removeView(host);
+        return new FrameStats(scenario.name, elapsed / FRAMES, worstFrame, allocated / FRAMES,
+                host.invalidations, host.layoutRequests);
+    }
+
+    /**
+     * One frame: the animations and posted work of the next 16ms, then layout and draw.
+     */
+    private static void frame(View host, Canvas canvas) {
+        Robolectric.getForegroundThreadScheduler().advanceBy(FRAME_MS, TimeUnit.MILLISECONDS);
+        if (host.isLayoutRequested()) {
+            host.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+            host.layout(0, 0, host.getMeasuredWidth(), host.getMeasuredHeight());
+        }
+        host.draw(canvas);
+    }
+
+    private static void writeReport(List<FrameStats> results) throws IOException {
+        File dir = REPORT.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Cannot create " + dir);
+        }
+        Writer writer = new FileWriter(REPORT);
+        try {
+            writer.write("{\n  \"frameMillis\": " + FRAME_MS + ",\n  \"frames\": " + FRAMES + ",\n  \"scenarios\": [\n");
+            for (int i = 0; i < results.size(); i++) {
+                writer.write("    " + results.get(i).toJson() + (i < results.size() - 1 ? ",\n" : "\n"));
+            }
+            writer.write("  ]\n}\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static ArrayAdapter<String> newAdapter(Context context) {
+        return new ArrayAdapter<>(context, android.R.layout.simple_spinner_item, ITEMS);
+    }
+
+    private static View newSide(Context context, String text) {
+        TextView side = new TextView(context);
+        side.setText(text);
+        return side;
+    }
+
+    private static abstract class Scenario {
+
+        private final String name;
+
+        Scenario(String name) {
+            this.name = name;
+        }
+
+        abstract View create(Context context);
+
+        /**
+         * Starts the animation, called on a widget laid out and drawn once.
+         */
+        abstract void start(View view);
+    }
+
+    private static class FrameStats {
+
+        private final String name;
+        private final long wallNanosPerFrame;
+        private final long worstFrameNanos;
+        private final long allocatedBytesPerFrame;
+        private final int invalidations;
+        private final int layoutRequests;
+
+        FrameStats(String name, long wallNanosPerFrame, long worstFrameNanos, long allocatedBytesPerFrame,
+                   int invalidations, int layoutRequests) {
+            this.name = name;
+            this.wallNanosPerFrame = wallNanosPerFrame;
+            this.worstFrameNanos = worstFrameNanos;
+            this.allocatedBytesPerFrame = allocatedBytesPerFrame;
+            this.invalidations = invalidations;
+            this.layoutRequests = layoutRequests;
+        }
+
+        String toJson() {
+            return String.format(Locale.US, "{\"name\": \"%s\", \"wallNanosPerFrame\": %d, \"worstFrameNanos\": %d, "
+                            + "\"allocatedBytesPerFrame\": %d, \"invalidations\": %d, \"layoutRequests\": %d}",
+                    name, wallNanosPerFrame, worstFrameNanos, allocatedBytesPerFrame, invalidations, layoutRequests);
+        }
+    }
+
+    /**
+     * Root of the widget, counting the invalidations of any view of the widget reaching
+     * the window and the layout requests reaching the root, that is the layout passes.
+     */
+    private static class CountingHost extends FrameLayout {
+
+        private int invalidations;
+        private int layoutRequests;
+
+        CountingHost(Context context) {
+            super(context);
+        }
+
+        @Override
+        public ViewParent invalidateChildInParent(int[] location, Rect dirty) {
+            invalidations++;
+            return super.invalidateChildInParent(location, dirty);
+        }
+
+        @Override
+        public void requestLayout() {
+            layoutRequests++;
+            super.requestLayout();
+        }
+    }
+}
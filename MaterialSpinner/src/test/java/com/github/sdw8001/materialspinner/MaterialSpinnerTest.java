@@ -0,0 +1,839 @@
+package com.github.sdw8001.materialspinner;
+
+import android.app.Activity;
+import android.content.Context;
+import android.database.DataSetObserver;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.Typeface;
+import android.os.SystemClock;
+import android.support.v7.app.AlertDialog;
+import android.text.SpannableString;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.AttributeSet;
+import android.view.ContextThemeWrapper;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
+import android.widget.BaseAdapter;
+import android.widget.ListView;
+import android.widget.SpinnerAdapter;
+import android.widget.TextView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowDialog;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class MaterialSpinnerTest {
+
+    private static final int VISIBLE_ROWS = 8;
+    private static final int FRAMES = 200;
+    //Reading the allocation counter itself may allocate this much, far less than a byte per frame
+    private static final long MAX_COUNTER_BYTES = 128;
+    static final Executor DIRECT_EXECUTOR = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+    private static final String LONG_ERROR = "A very very very long error message that has to be broken into several lines to be shown";
+
+    private Context context;
+    private MaterialSpinner spinner;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+        context.setTheme(R.style.Theme_AppCompat_Light);
+        spinner = new MaterialSpinner(context);
+    }
+
+    @Test
+    public void dropDownScrolling_reusesWrappedViewsAfterWarmUp() {
+        CountingAdapter adapter = new CountingAdapter(1000);
+        spinner.setHint("Hint");
+        spinner.setAdapter(adapter);
+
+        MaterialSpinner.HintAdapter hintAdapter = spinner.getHintAdapter();
+        ListView parent = new ListView(context);
+        ArrayDeque<View> visible = new ArrayDeque<>();
+        ArrayDeque<View> scrap = new ArrayDeque<>();
+
+        int warmUp = VISIBLE_ROWS * 2;
+        for (int position = 0; position < hintAdapter.getCount(); position++) {
+            if (position == warmUp) {
+                adapter.inflations = 0;
+            }
+            //Lollipop's DropDownAdapter reports a single view type, so any scrap view comes back
+            visible.addLast(hintAdapter.getDropDownView(position, scrap.pollFirst(), parent));
+            if (visible.size() > VISIBLE_ROWS) {
+                scrap.addLast(visible.pollFirst());
+            }
+        }
+
+        assertEquals(0, adapter.inflations);
+    }
+
+    @Test
+    public void hintRows_areOnlyRecycledThroughConvertView() {
+        spinner.setHint("Hint");
+        spinner.setAdapter(new CountingAdapter(10));
+        MaterialSpinner.HintAdapter hintAdapter = spinner.getHintAdapter();
+        ListView parent = new ListView(context);
+
+        //The first row is detached but still held by the caller, in a scrap heap for instance
+        View first = hintAdapter.getDropDownView(0, null, parent);
+        View second = hintAdapter.getDropDownView(0, null, parent);
+        assertNotSame(first, second);
+        assertSame(first, hintAdapter.getDropDownView(0, first, parent));
+
+        //The hint row shown by the spinner follows the hint
+        layout(spinner);
+        spinner.setHint("Other hint");
+        assertEquals("Other hint", ((TextView) spinner.getSelectedView()).getText().toString());
+    }
+
+    @Test
+    public void dropDownHintRow_isReusedByTheListOfTheNextDropDown() {
+        spinner.setHint("Hint");
+        spinner.setAdapter(new CountingAdapter(10));
+        MaterialSpinner.HintAdapter hintAdapter = spinner.getHintAdapter();
+
+        //Each dropdown shows a new list, and item views are no convertView for the hint row
+        View first = hintAdapter.getDropDownView(0, null, new ListView(context));
+        View second = hintAdapter.getDropDownView(0, null, new ListView(context));
+        assertSame(first, second);
+
+        spinner.setHint("Other hint");
+        assertEquals("Other hint", ((TextView) second).getText().toString());
+    }
+
+    @Test
+    public void wrappedAdapterChange_keepsWrapperAndSelection() {
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(context, android.R.layout.simple_spinner_item,
+                new ArrayList<>(Arrays.asList("One", "Two", "Three")));
+        spinner.setHint("Hint");
+        spinner.setAdapter(adapter);
+        layout(spinner);
+        spinner.setSelection(1);
+        layout(spinner);
+        MaterialSpinner.HintAdapter hintAdapter = spinner.getHintAdapter();
+
+        adapter.add("Four");
+        layout(spinner);
+        assertEquals(5, spinner.getCount());
+        assertEquals(1, spinner.getSelectedItemPosition());
+        assertEquals("Two", spinner.getSelectedItem());
+
+        spinner.setAdapter(adapter);
+        layout(spinner);
+        assertSame(hintAdapter, spinner.getHintAdapter());
+        assertEquals(1, spinner.getSelectedItemPosition());
+    }
+
+    @Test
+    public void wrappedAdapter_seesItselfFromItsRowsDuringLayout() {
+        final List<SpinnerAdapter> seen = new ArrayList<>();
+        final ArrayAdapter<String> adapter = new ArrayAdapter<String>(context, android.R.layout.simple_spinner_item,
+                Arrays.asList("One", "Two")) {
+            @Override
+            public View getView(int position, View convertView, ViewGroup parent) {
+                seen.add(spinner.getAdapter());
+                return super.getView(position, convertView, parent);
+            }
+        };
+        spinner.setAdapter(adapter);
+        layout(spinner);
+
+        assertTrue(!seen.isEmpty());
+        for (SpinnerAdapter seenAdapter : seen) {
+            assertSame(adapter, seenAdapter);
+        }
+    }
+
+    @Test
+    public void hintOverlay_passesPositionsThroughUntilSelected() {
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(context, android.R.layout.simple_spinner_item,
+                new ArrayList<>(Arrays.asList("One", "Two", "Three")));
+        spinner.setHintMode(MaterialSpinner.HINT_MODE_OVERLAY);
+        spinner.setHint("Hint");
+        spinner.setAdapter(adapter);
+        layout(spinner);
+        final int[] selected = {-1};
+        spinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                selected[0] = position;
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        });
+
+        assertEquals(3, spinner.getCount());
+        assertEquals("One", spinner.getItemAtPosition(0));
+        assertEquals(AdapterView.INVALID_POSITION, spinner.getSelectedItemPosition());
+
+        //The first item is under the hint, picking it is still a selection
+        spinner.setSelection(0);
+        layout(spinner);
+        assertEquals(0, selected[0]);
+        assertEquals(0, spinner.getSelectedItemPosition());
+        assertEquals("One", spinner.getSelectedItem());
+
+        //Other data brings the hint back over its first item
+        spinner.setAdapter(new ArrayAdapter<>(context, android.R.layout.simple_spinner_item,
+                new ArrayList<>(Arrays.asList("Four", "Five"))));
+        layout(spinner);
+        assertEquals(AdapterView.INVALID_POSITION, spinner.getSelectedItemPosition());
+        assertNull(spinner.getSelectedItem());
+    }
+
+    @Test
+    public void precomputedAdapter_rowsBehaveLikeTextViews() {
+        PrecomputedTextAdapter<String> adapter = new PrecomputedTextAdapter<String>(context, Arrays.asList("One", "Two")) {
+            @Override
+            public boolean isEnabled(int position) {
+                return position == 0;
+            }
+        };
+        adapter.setTypeface(Typeface.DEFAULT_BOLD);
+        ListView parent = new ListView(context);
+
+        PrecomputedLabelView first = (PrecomputedLabelView) adapter.getView(0, null, parent);
+        assertSame(Typeface.DEFAULT_BOLD, first.getTypeface());
+        assertTrue(first.isEnabled());
+        assertFalse(adapter.getView(1, null, parent).isEnabled());
+
+        AccessibilityNodeInfo info = AccessibilityNodeInfo.obtain();
+        first.onInitializeAccessibilityNodeInfo(info);
+        assertEquals("One", info.getText().toString());
+        info.recycle();
+    }
+
+    @Test
+    public void precomputedAdapter_laysRowsOutInTheBackground() throws InterruptedException {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            items.add("Договор поставки № " + i + " — 配送契約");
+        }
+        TextLayoutCache.clear();
+        spinner.setAdapter(new PrecomputedTextAdapter<>(context, items));
+        layout(spinner);
+
+        int rowWidth = spinner.getWidth() - spinner.getPaddingLeft() - spinner.getPaddingRight();
+        int textWidth = rowWidth - 2 * context.getResources().getDimensionPixelSize(R.dimen.right_left_spinner_padding);
+        TextPaint paint = PrecomputedLabelView.createPaint(context);
+        long deadline = System.currentTimeMillis() + 5000;
+        int precomputed = 0;
+        while (precomputed < items.size() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            precomputed = 0;
+            for (String item : items) {
+                precomputed += TextLayoutCache.get(item, paint, textWidth) != null ? 1 : 0;
+            }
+        }
+        assertEquals(items.size(), precomputed);
+
+        //Binding the rows at the dropdown width picks the precomputed layouts up
+        int cached = TextLayoutCache.size();
+        ListView parent = new ListView(context);
+        for (int position = 0; position < items.size(); position++) {
+            View row = spinner.getHintAdapter().getDropDownView(position, null, parent);
+            row.measure(View.MeasureSpec.makeMeasureSpec(rowWidth, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        }
+        assertEquals(cached, TextLayoutCache.size());
+    }
+
+    @Test
+    public void onDraw_allocatesNothingAfterWarmUp() {
+        MaterialSpinner shortError = newSingleLineSpinner();
+        MaterialSpinner longError = newSingleLineSpinner();
+        shortError.setError(new SpannableString("Error"));
+        char[] chars = new char[2000];
+        Arrays.fill(chars, 'e');
+        longError.setError(new SpannableString(new String(chars)));
+
+        Canvas canvas = new NoOpCanvas();
+        long shortBytes = measureDrawAllocations(shortError, canvas);
+        long longBytes = measureDrawAllocations(longError, canvas);
+
+        //Converting the 2000 chars error to a String once per frame would cost ~800KB here
+        assertTrue("onDraw allocated " + shortBytes + " bytes in " + FRAMES + " frames", shortBytes <= MAX_COUNTER_BYTES);
+        assertTrue("onDraw allocated " + longBytes + " bytes in " + FRAMES + " frames", longBytes <= MAX_COUNTER_BYTES);
+    }
+
+    @Test
+    public void errorLayout_followsTextWidthAndKeepsItsText() {
+        layout(spinner);
+        spinner.setError(LONG_ERROR);
+        spinner.setPaddingSafe(0, 0, 0, 0);
+        int paddingBottom = spinner.getPaddingBottom();
+
+        //Less room for the text, more lines below the spinner
+        spinner.setPaddingSafe(spinner.getWidth() / 3, 0, spinner.getWidth() / 3, 0);
+        assertTrue(spinner.getPaddingBottom() > paddingBottom);
+
+        StringBuilder text = new StringBuilder("Mutable error");
+        TextPaint paint = new TextPaint();
+        StaticLayout layout = ErrorLayoutCache.obtain(text, paint, 200);
+        text.setLength(0);
+        assertEquals("Mutable error", layout.getText().toString());
+        //Drawing sets the error color on the layout's paint, not on the spinner's
+        assertNotSame(paint, layout.getPaint());
+    }
+
+    @Test
+    public void setError_multiline_requestsLayoutOnlyOnce() {
+        CountingSpinner spinner = new CountingSpinner(context);
+        layout(spinner);
+        Robolectric.getForegroundThreadScheduler().advanceBy(1, TimeUnit.SECONDS);
+
+        spinner.layoutRequests = 0;
+        spinner.setError(LONG_ERROR);
+        int onSetError = spinner.layoutRequests;
+        Robolectric.getForegroundThreadScheduler().advanceBy(1, TimeUnit.SECONDS);
+
+        //setPadding + setMinimumHeight, the framework merges them into one pass
+        assertTrue("setError requested " + onSetError + " layouts", onSetError <= 2);
+        assertEquals(onSetError, spinner.layoutRequests);
+    }
+
+    @Test
+    public void labelledSpinner_searchable_opensTheSearchFromPerformClick() {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        activity.setTheme(R.style.Theme_AppCompat_Light);
+        LabelledSpinner labelledSpinner = new LabelledSpinner(activity);
+        labelledSpinner.setItemsArray(Arrays.asList("One", "Two", "Three"));
+        labelledSpinner.setSearchable(true);
+        activity.setContentView(labelledSpinner);
+
+        //Keyboard and accessibility clicks come through performClick(), not through a touch
+        assertTrue(labelledSpinner.getSpinner().performClick());
+        assertTrue(ShadowDialog.getLatestDialog() instanceof AlertDialog);
+        assertTrue(ShadowDialog.getLatestDialog().isShowing());
+    }
+
+    @Test
+    public void searchable_detachingTheSpinnerLetsGoOfTheAdapter() {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        activity.setTheme(R.style.Theme_AppCompat_Light);
+        MaterialSpinner spinner = new MaterialSpinner(activity);
+        CountingAdapter adapter = new CountingAdapter(10);
+        spinner.setAdapter(adapter);
+        spinner.setSearchable(true);
+        activity.setContentView(spinner);
+        int observers = adapter.observers;
+
+        assertTrue(spinner.performClick());
+        assertEquals(observers + 1, adapter.observers);
+
+        //The adapter may outlive the screen, it must not keep the search dialog and its activity
+        ((ViewGroup) spinner.getParent()).removeView(spinner);
+        assertEquals(observers, adapter.observers);
+        assertFalse(ShadowDialog.getLatestDialog().isShowing());
+    }
+
+    @Test
+    public void setError_burstWithinAFrame_isAppliedOnce() {
+        CountingSpinner spinner = new CountingSpinner(context);
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        activity.setContentView(spinner);
+        Robolectric.getForegroundThreadScheduler().advanceBy(1, TimeUnit.SECONDS);
+
+        spinner.layoutRequests = 0;
+        for (int i = 0; i < 20; i++) {
+            spinner.setError(i % 2 == 0 ? LONG_ERROR : "Short error");
+        }
+        assertEquals("Short error", spinner.getError());
+        Robolectric.getForegroundThreadScheduler().advanceBy(1, TimeUnit.SECONDS);
+        assertTrue("burst requested " + spinner.layoutRequests + " layouts", spinner.layoutRequests <= 2);
+
+        //Setting the shown error again is not a transition
+        spinner.layoutRequests = 0;
+        spinner.invalidations = 0;
+        spinner.setError("Short error");
+        Robolectric.getForegroundThreadScheduler().advanceBy(1, TimeUnit.SECONDS);
+        assertEquals(0, spinner.layoutRequests);
+        assertEquals(0, spinner.invalidations);
+    }
+
+    @Test
+    public void errorMarquee_producesNoFrameWhileDetached() {
+        CountingSpinner spinner = new CountingSpinner(context, singleLineAttributes());
+        layout(spinner);
+        spinner.setError(LONG_ERROR);
+
+        spinner.invalidations = 0;
+        Robolectric.getForegroundThreadScheduler().advanceBy(10, TimeUnit.SECONDS);
+        assertEquals(0, spinner.invalidations);
+
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        activity.setContentView(spinner);
+        ((ViewGroup) spinner.getParent()).removeView(spinner);
+
+        spinner.invalidations = 0;
+        Robolectric.getForegroundThreadScheduler().advanceBy(10, TimeUnit.SECONDS);
+        assertEquals(0, spinner.invalidations);
+    }
+
+    @Test
+    public void errorMarquee_isThrottledAndRedrawsOnlyTheErrorLabel() {
+        CountingSpinner spinner = new CountingSpinner(context, singleLineAttributes());
+        spinner.setErrorScrollFrameRate(10);
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        activity.setContentView(spinner);
+        layout(spinner);
+        spinner.setError(LONG_ERROR);
+        //The marquee starts after a second
+        Robolectric.getForegroundThreadScheduler().advanceBy(2, TimeUnit.SECONDS);
+
+        spinner.invalidations = 0;
+        spinner.dirty.setEmpty();
+        Robolectric.getForegroundThreadScheduler().advanceBy(1, TimeUnit.SECONDS);
+        assertTrue(spinner.invalidations > 0);
+        assertTrue(spinner.invalidations + " frames in a second at 10fps", spinner.invalidations <= 11);
+        assertTrue(spinner.dirty.top >= spinner.getHeight() - spinner.getPaddingBottom());
+    }
+
+    @Test
+    public void arrow_turnsUpOnClickAndBackWhenTheWindowGetsTheFocus() {
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        activity.setTheme(R.style.Theme_AppCompat_Light);
+        MaterialSpinner spinner = new MaterialSpinner(activity);
+        spinner.setArrowAnimationEnabled(true);
+        spinner.setAdapter(new CountingAdapter(10));
+        activity.setContentView(spinner);
+        layout(spinner);
+        RotationCanvas canvas = new RotationCanvas();
+
+        assertTrue(spinner.performClick());
+        Robolectric.getForegroundThreadScheduler().advanceBy(1, TimeUnit.SECONDS);
+        spinner.draw(canvas);
+        assertEquals(180f, canvas.rotation, 0f);
+
+        //The dropdown is dismissed
+        spinner.onWindowFocusChanged(true);
+        Robolectric.getForegroundThreadScheduler().advanceBy(1, TimeUnit.SECONDS);
+        canvas.rotation = 0;
+        spinner.draw(canvas);
+        assertEquals(0f, canvas.rotation, 0f);
+    }
+
+    @Test
+    public void setSelection_beforeLayout_isAppliedOnceWithTheLastPosition() {
+        final List<Integer> selected = new ArrayList<>();
+        spinner.setAdapter(new CountingAdapter(10));
+        spinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                selected.add(position);
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        });
+
+        //A form being filled in
+        spinner.setSelection(1);
+        spinner.setSelection(2);
+        spinner.setSelection(3);
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        activity.setContentView(spinner);
+        Robolectric.getForegroundThreadScheduler().advanceBy(1, TimeUnit.SECONDS);
+        assertFalse(selected.contains(1));
+        assertFalse(selected.contains(2));
+        assertEquals(3, (int) selected.get(selected.size() - 1));
+
+        //Laid out, the selection is applied at once
+        spinner.setSelection(5);
+        assertEquals(5, spinner.getSelectedItemPosition());
+    }
+
+    @Test
+    public void metrics_countOnlySpinnersCreatedWhileEnabled() {
+        SpinnerMetrics.setEnabled(true);
+        MaterialSpinner counted;
+        try {
+            counted = new MaterialSpinner(context);
+        } finally {
+            SpinnerMetrics.setEnabled(false);
+        }
+        counted.setHint("Hint");
+        counted.setAdapter(new CountingAdapter(10));
+        layout(counted);
+        counted.draw(new NoOpCanvas());
+        counted.getHintAdapter().getDropDownView(1, null, new ListView(context));
+
+        SpinnerMetrics metrics = counted.getMetrics();
+        assertEquals(1, metrics.getDrawCount());
+        assertEquals(1, metrics.getGetDropDownViewCount());
+        assertTrue(metrics.getLayoutRequestCount() > 0);
+        assertTrue(SpinnerMetrics.dump().contains("hint=\"Hint\" detached draws=1 "));
+        assertNull(spinner.getMetrics());
+    }
+
+    @Test
+    public void performanceListener_reportsEachOperationOnce() {
+        final List<Integer> operations = new ArrayList<>();
+        spinner.setPerformanceListener(new MaterialSpinner.PerformanceListener() {
+            @Override
+            public void onOperation(MaterialSpinner spinner, int operation, long durationNanos) {
+                assertTrue(durationNanos >= 0);
+                operations.add(operation);
+            }
+        });
+        spinner.setAdapter(new CountingAdapter(10));
+        layout(spinner);
+        spinner.setError(LONG_ERROR);
+        spinner.draw(new NoOpCanvas());
+
+        //The error layout is nested in the error change, it ends first
+        assertEquals(Arrays.asList(MaterialSpinner.OPERATION_SET_ADAPTER, MaterialSpinner.OPERATION_ERROR_LAYOUT,
+                MaterialSpinner.OPERATION_SET_ERROR, MaterialSpinner.OPERATION_DRAW), operations);
+    }
+
+    @Test
+    public void drag_invalidatesOnlyWhenPressedStateChanges() {
+        CountingSpinner spinner = new CountingSpinner(context);
+        layout(spinner);
+
+        int shortDrag = countDragInvalidations(spinner, 10);
+        int longDrag = countDragInvalidations(spinner, 200);
+
+        assertEquals("MOVE events redraw the spinner", shortDrag, longDrag);
+    }
+
+    @Test
+    public void floatingLabelAnimator_onlyRunsOnceTheLabelShows() {
+        AttributeSet labelled = Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.s_hint, "Hint")
+                .build();
+        SpinnerMetrics.setEnabled(true);
+        MaterialSpinner spinner;
+        try {
+            spinner = new MaterialSpinner(context, labelled);
+        } finally {
+            SpinnerMetrics.setEnabled(false);
+        }
+        spinner.setAdapter(new CountingAdapter(10));
+        Activity activity = Robolectric.setupActivity(Activity.class);
+        activity.setContentView(spinner);
+
+        //The floating label only shows once an item is selected
+        Robolectric.getForegroundThreadScheduler().advanceBy(1, TimeUnit.SECONDS);
+        assertEquals(0, spinner.getMetrics().getAnimatorFrameCount());
+
+        //Then the animator is created and runs
+        spinner.setSelection(1);
+        Robolectric.getForegroundThreadScheduler().advanceBy(1, TimeUnit.SECONDS);
+        assertTrue(spinner.getMetrics().getAnimatorFrameCount() > 0);
+    }
+
+    @Test
+    public void construction_withTheSameAttributes_resolvesTheThemeOnce() {
+        AttributeSet attrs = Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.s_hint, "Hint")
+                .addAttribute(R.attr.s_baseColor, "-65536")
+                .build();
+        new MaterialSpinner(context, attrs);
+
+        int misses = ResolvedStyle.getMissCount();
+        for (int i = 0; i < 50; i++) {
+            new MaterialSpinner(context, attrs);
+        }
+        assertEquals(misses, ResolvedStyle.getMissCount());
+    }
+
+    @Test
+    public void attributeOverride_colorsFollowOverriddenBaseColor() {
+        AttributeSet attrs = Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.s_baseColor, "-65536")
+                .build();
+        MaterialSpinner spinner = new MaterialSpinner(context, attrs);
+
+        assertEquals(0xFFFF0000, spinner.getBaseColor());
+        assertEquals(0xFFFF0000, spinner.getHintColor());
+    }
+
+    @Test
+    public void spinners_withTheSameAttributes_shareOneStyle() {
+        //Before the flyweight, every spinner held its own paints and arrow path
+        MaterialSpinner first = new MaterialSpinner(context);
+        MaterialSpinner second = new MaterialSpinner(context);
+        assertSame(first.getStyle(), second.getStyle());
+        assertSame(first.getStyle().textPaint, second.getStyle().textPaint);
+
+        AttributeSet arrowSize = Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.s_arrowSize, "20px")
+                .build();
+        assertNotSame(first.getStyle(), new MaterialSpinner(context, arrowSize).getStyle());
+    }
+
+    @Test
+    public void typefaceCache_keepsNoFontThatFailedToLoad() {
+        TypefaceCache.clear();
+        //Every spinner declaring the font gets the error, none gets a placeholder from the cache
+        for (int i = 0; i < 2; i++) {
+            try {
+                TypefaceCache.get(context, "fonts/missing.ttf");
+                fail("Loaded a missing font");
+            } catch (RuntimeException expected) {
+            }
+        }
+        assertEquals(0, TypefaceCache.size());
+        assertEquals(2, TypefaceCache.getMissCount());
+        assertEquals(0, TypefaceCache.getHitCount());
+    }
+
+    @Test
+    public void spinnerStyle_isSharedByThemesResolvingToTheSameValues() {
+        new MaterialSpinner(new ContextThemeWrapper(context, R.style.Theme_AppCompat_Light));
+        int styles = SpinnerStyle.getCount();
+
+        //A recreated activity has a new theme instance
+        new MaterialSpinner(new ContextThemeWrapper(context, R.style.Theme_AppCompat_Light));
+        assertEquals(styles, SpinnerStyle.getCount());
+    }
+
+    @Test
+    public void spinnerStyle_keepsABoundedNumberOfStyles() {
+        //Each arrow size makes a style of its own
+        for (int i = 0; i < 2 * SpinnerStyle.MAX_SIZE; i++) {
+            new MaterialSpinner(context, Robolectric.buildAttributeSet()
+                    .addAttribute(R.attr.s_arrowSize, (20 + i) + "px")
+                    .build());
+        }
+        assertEquals(SpinnerStyle.MAX_SIZE, SpinnerStyle.getCount());
+    }
+
+    private AttributeSet singleLineAttributes() {
+        return Robolectric.buildAttributeSet()
+                .addAttribute(R.attr.s_multiline, "false")
+                .build();
+    }
+
+    private MaterialSpinner newSingleLineSpinner() {
+        MaterialSpinner spinner = new MaterialSpinner(context, singleLineAttributes());
+        spinner.setHint("Hint");
+        spinner.setRtl();
+        layout(spinner);
+        return spinner;
+    }
+
+    static void layout(View view) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(480, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+    }
+
+    /**
+     * Allocations of onDraw alone, the framework drawing of the background and children is left out.
+     */
+    private static long measureDrawAllocations(MaterialSpinner spinner, Canvas canvas) {
+        //Warm up so that lazily initialised framework state is not counted
+        for (int i = 0; i < FRAMES; i++) {
+            spinner.onDraw(canvas);
+        }
+        long before = allocatedBytes();
+        for (int i = 0; i < FRAMES; i++) {
+            spinner.onDraw(canvas);
+        }
+        return allocatedBytes() - before;
+    }
+
+    static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Canvas swallowing every drawing call, so that only the allocations of
+     * the widget itself are measured.
+     */
+    static class NoOpCanvas extends Canvas {
+
+        @Override
+        public void drawText(String text, float x, float y, Paint paint) {
+        }
+
+        @Override
+        public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        }
+
+        @Override
+        public void drawPath(Path path, Paint paint) {
+        }
+
+        @Override
+        public int save() {
+            return 1;
+        }
+
+        @Override
+        public void restore() {
+        }
+
+        @Override
+        public void translate(float dx, float dy) {
+        }
+    }
+
+    /**
+     * Records the rotation drawn with, that of the arrow.
+     */
+    private static class RotationCanvas extends NoOpCanvas {
+
+        private float rotation;
+
+        @Override
+        public void rotate(float degrees) {
+            rotation += degrees;
+        }
+    }
+
+    /**
+     * Drags across the spinner then cancels, so that no dropdown is opened.
+     */
+    private static int countDragInvalidations(CountingSpinner spinner, int moves) {
+        long downTime = SystemClock.uptimeMillis();
+        float y = spinner.getHeight() / 2;
+        spinner.invalidations = 0;
+        dispatch(spinner, MotionEvent.obtain(downTime, downTime, MotionEvent.ACTION_DOWN, 1, y, 0));
+        for (int i = 0; i < moves; i++) {
+            float x = 1 + (spinner.getWidth() - 2) * i / (float) moves;
+            dispatch(spinner, MotionEvent.obtain(downTime, downTime + i, MotionEvent.ACTION_MOVE, x, y, 0));
+        }
+        dispatch(spinner, MotionEvent.obtain(downTime, downTime + moves, MotionEvent.ACTION_CANCEL, 1, y, 0));
+        return spinner.invalidations;
+    }
+
+    private static void dispatch(View view, MotionEvent event) {
+        view.onTouchEvent(event);
+        event.recycle();
+    }
+
+    private static class CountingSpinner extends MaterialSpinner {
+
+        private int layoutRequests;
+        private int invalidations;
+        //Union of the invalidated areas, the whole spinner for invalidate()
+        private final Rect dirty = new Rect();
+
+        CountingSpinner(Context context) {
+            super(context);
+        }
+
+        CountingSpinner(Context context, AttributeSet attrs) {
+            super(context, attrs);
+        }
+
+        @Override
+        public void requestLayout() {
+            layoutRequests++;
+            super.requestLayout();
+        }
+
+        @Override
+        public void invalidate() {
+            invalidations++;
+            dirty.union(0, 0, getWidth(), getHeight());
+            super.invalidate();
+        }
+
+        @Override
+        public void invalidate(int l, int t, int r, int b) {
+            invalidations++;
+            dirty.union(l, t, r, b);
+            super.invalidate(l, t, r, b);
+        }
+    }
+
+    /**
+     * Adapter following the usual ViewHolder-in-tag pattern, counting how
+     * many rows it had to create and its registered observers.
+     */
+    private static class CountingAdapter extends BaseAdapter {
+
+        private final int count;
+        private int inflations;
+        private int observers;
+
+        CountingAdapter(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public Object getItem(int position) {
+            return "Item " + position;
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return position;
+        }
+
+        @Override
+        public View getView(int position, View convertView, ViewGroup parent) {
+            TextView textView;
+            if (convertView == null) {
+                inflations++;
+                textView = new TextView(parent.getContext());
+                textView.setTag(new Object());
+            } else {
+                textView = (TextView) convertView;
+            }
+            textView.setText((CharSequence) getItem(position));
+            return textView;
+        }
+
+        @Override
+        public void registerDataSetObserver(DataSetObserver observer) {
+            super.registerDataSetObserver(observer);
+            observers++;
+        }
+
+        @Override
+        public void unregisterDataSetObserver(DataSetObserver observer) {
+            super.unregisterDataSetObserver(observer);
+            observers--;
+        }
+    }
+}
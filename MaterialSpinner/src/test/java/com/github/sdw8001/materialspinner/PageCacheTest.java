@@ -0,0 +1,58 @@
+package com.github.sdw8001.materialspinner;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PageCacheTest {
+
+    private static final List<String> ITEMS = Collections.singletonList("Item");
+
+    @Test
+    public void put_evictsTheLeastRecentlyUsedPage() {
+        PageCache<String> cache = new PageCache<>(3);
+        cache.put(0, ITEMS, cache.tick());
+        cache.put(1, ITEMS, cache.tick());
+        cache.put(2, ITEMS, cache.tick());
+        cache.get(0);
+
+        assertTrue(cache.put(3, ITEMS, cache.tick()));
+        assertEquals(3, cache.size());
+        assertTrue(cache.contains(0));
+        assertFalse(cache.contains(1));
+    }
+
+    @Test
+    public void put_dropsAPageAskedForBeforeEveryPageInMemory() {
+        PageCache<String> cache = new PageCache<>(3);
+        long staleRequest = cache.tick();
+        cache.put(1, ITEMS, cache.tick());
+        cache.put(2, ITEMS, cache.tick());
+        cache.put(3, ITEMS, cache.tick());
+
+        assertFalse(cache.put(0, ITEMS, staleRequest));
+        assertFalse(cache.contains(0));
+        assertTrue(cache.contains(1) && cache.contains(2) && cache.contains(3));
+    }
+
+    @Test
+    public void removeFrom_dropsTheFollowingPages() {
+        PageCache<String> cache = new PageCache<>(4);
+        for (int page = 0; page < 4; page++) {
+            cache.put(page, ITEMS, cache.tick());
+        }
+        cache.removeFrom(2);
+
+        assertEquals(2, cache.size());
+        assertSame(ITEMS, cache.get(1));
+        assertNull(cache.get(2));
+        assertNull(cache.get(3));
+    }
+}
@@ -0,0 +1,168 @@
+package com.github.sdw8001.materialspinner;
+
+import android.content.Context;
+import android.view.View;
+import android.widget.ListView;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class PagedSpinnerAdapterTest {
+
+    private Context context;
+    private MaterialSpinner spinner;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+        context.setTheme(R.style.Theme_AppCompat_Light);
+        spinner = new MaterialSpinner(context);
+    }
+
+    @Test
+    public void scrolling_keepsABoundedNumberOfPages() {
+        final int count = 200000;
+        PagedDataSource<String> dataSource = new PagedDataSource<String>() {
+            @Override
+            public int getCount() {
+                return count;
+            }
+
+            @Override
+            public List<String> loadPage(int offset, int limit) {
+                List<String> page = new ArrayList<>(limit);
+                for (int i = offset; i < offset + limit; i++) {
+                    page.add("Item " + i);
+                }
+                return page;
+            }
+        };
+        PagedSpinnerAdapter<String> adapter = new PagedSpinnerAdapter<>(context, android.R.layout.simple_spinner_dropdown_item,
+                0, dataSource, 100, 5, MaterialSpinnerTest.DIRECT_EXECUTOR);
+        spinner.setHint("Hint");
+        spinner.setAdapter(adapter);
+        MaterialSpinner.HintAdapter hintAdapter = spinner.getHintAdapter();
+        assertEquals(count + 1, hintAdapter.getCount());
+
+        ListView parent = new ListView(context);
+        View row = null;
+        for (int position = 1; position <= count; position += 7) {
+            row = hintAdapter.getDropDownView(position, row, parent);
+            Robolectric.flushForegroundThreadScheduler();
+            assertTrue(adapter.getLoadedPageCount() <= 5);
+        }
+        assertEquals("Item 199995", hintAdapter.getItem(count - 4));
+    }
+
+    @Test
+    public void shortPage_endsTheData() {
+        PagedDataSource<String> dataSource = new PagedDataSource<String>() {
+            @Override
+            public int getCount() {
+                return 1000;
+            }
+
+            @Override
+            public List<String> loadPage(int offset, int limit) {
+                //Rows were deleted since the count was read
+                List<String> page = new ArrayList<>();
+                for (int i = offset; i < Math.min(offset + limit, 230); i++) {
+                    page.add("Item " + i);
+                }
+                return page;
+            }
+        };
+        PagedSpinnerAdapter<String> adapter = new PagedSpinnerAdapter<>(context, android.R.layout.simple_spinner_dropdown_item,
+                0, dataSource, 100, 5, MaterialSpinnerTest.DIRECT_EXECUTOR);
+
+        assertNull(adapter.getItem(250));
+        Robolectric.flushForegroundThreadScheduler();
+
+        assertEquals(230, adapter.getCount());
+        assertEquals("Item 229", adapter.getItem(229));
+    }
+
+    @Test
+    public void loadSearchLabels_keepsNoPage() {
+        PagedDataSource<String> dataSource = new PagedDataSource<String>() {
+            @Override
+            public int getCount() {
+                return 250;
+            }
+
+            @Override
+            public List<String> loadPage(int offset, int limit) {
+                List<String> page = new ArrayList<>(limit);
+                for (int i = offset; i < offset + limit; i++) {
+                    page.add("Item " + i);
+                }
+                return page;
+            }
+        };
+        PagedSpinnerAdapter<String> adapter = new PagedSpinnerAdapter<>(context, android.R.layout.simple_spinner_dropdown_item,
+                0, dataSource, 100, 5, MaterialSpinnerTest.DIRECT_EXECUTOR);
+
+        List<CharSequence> labels = adapter.loadSearchLabels(adapter.getCount());
+
+        assertEquals(250, labels.size());
+        assertEquals("Item 249", labels.get(249).toString());
+        assertEquals(0, adapter.getLoadedPageCount());
+    }
+
+    @Test
+    public void lateLoad_isDroppedOnceTheRowsMovedAway() {
+        final ArrayDeque<Runnable> loads = new ArrayDeque<>();
+        PagedDataSource<String> dataSource = new PagedDataSource<String>() {
+            @Override
+            public int getCount() {
+                return 1000;
+            }
+
+            @Override
+            public List<String> loadPage(int offset, int limit) {
+                return new ArrayList<>(Collections.nCopies(limit, "Item " + offset));
+            }
+        };
+        PagedSpinnerAdapter<String> adapter = new PagedSpinnerAdapter<>(context, android.R.layout.simple_spinner_dropdown_item,
+                0, dataSource, 100, 5, new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        loads.add(command);
+                    }
+                });
+
+        adapter.getItem(0);
+        Runnable firstLoad = loads.poll();
+        for (int page = 1; page <= 5; page++) {
+            adapter.getItem(page * 100);
+        }
+        while (!loads.isEmpty()) {
+            loads.poll().run();
+        }
+        Robolectric.flushForegroundThreadScheduler();
+        firstLoad.run();
+        Robolectric.flushForegroundThreadScheduler();
+
+        assertTrue(!adapter.isLoaded(0));
+        for (int page = 1; page <= 5; page++) {
+            assertTrue(adapter.isLoaded(page * 100));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.sdw8001.materialspinner;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SpinnerSearchIndexTest {
+
+    private static final List<String> CITIES = Arrays.asList("Marseille", "Strasbourg", "Le Mont-Dore", "Montpellier",
+            "Mont-de-Marsan", "Montauban", "Montreuil", "Saint-Etienne", "Saint-Malo", "Saint-Denis");
+
+    @Test
+    public void search_ranksPrefixThenFuzzyMatches() {
+        SpinnerSearchIndex index = SpinnerSearchIndex.build(Arrays.asList("Marseille", "Strasbourg", "Le Mont-Dore", "Montpellier"));
+
+        assertArrayEquals(new int[]{3, 2}, index.search("mont", 10).getPositions());
+        assertArrayEquals(new int[]{1}, index.search("strasbrg", 10).getPositions());
+        assertEquals(4, index.search("", 10).getMatchCount());
+    }
+
+    @Test
+    public void refine_typedOneCharacterAtATime_findsWhatSearchFinds() {
+        SpinnerSearchIndex index = SpinnerSearchIndex.build(CITIES);
+
+        for (String query : Arrays.asList("tsrasbourg", "strasbrg", "montp", "mont", "saint-m", "marsielle")) {
+            for (int maxResults : new int[]{1, 2, 10}) {
+                SpinnerSearchIndex.Result refined = null;
+                for (int length = 1; length <= query.length(); length++) {
+                    String typed = query.substring(0, length);
+                    refined = index.refine(refined, typed, maxResults);
+                    SpinnerSearchIndex.Result searched = index.search(typed, maxResults);
+
+                    assertArrayEquals(typed + ", " + maxResults, searched.getPositions(), refined.getPositions());
+                    assertEquals(typed + ", " + maxResults, searched.getMatchCount(), refined.getMatchCount());
+                }
+            }
+        }
+        assertArrayEquals(new int[]{1}, index.search("tsrasbourg", 10).getPositions());
+    }
+
+    @Test
+    public void refine_on100kItems_ranksTheTypedItemFirst() {
+        List<String> labels = new ArrayList<>(100000);
+        for (int i = 0; i < 100000; i++) {
+            labels.add("Item " + i);
+        }
+        SpinnerSearchIndex index = SpinnerSearchIndex.build(labels);
+
+        String query = "item 4242";
+        SpinnerSearchIndex.Result result = null;
+        for (int length = 1; length <= query.length(); length++) {
+            result = index.refine(result, query.substring(0, length), 20);
+        }
+
+        //4242 then 42420..42429, ties in the order of the list, then fuzzy matches
+        assertEquals(20, result.getPositions().length);
+        assertEquals(4242, result.getPositions()[0]);
+        assertEquals(42420, result.getPositions()[1]);
+        assertEquals(42429, result.getPositions()[10]);
+    }
+}
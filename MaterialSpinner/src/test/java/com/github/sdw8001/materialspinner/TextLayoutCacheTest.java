@@ -0,0 +1,65 @@
+package com.github.sdw8001.materialspinner;
+
+import android.content.Context;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class TextLayoutCacheTest {
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.application;
+    }
+
+    @Test
+    public void precompute_keepsTheFirstRowsOfALongList() throws InterruptedException {
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            texts.add("Item " + (10000 + i));
+        }
+        //Each text takes its length and one more character of the cache
+        int leading = TextLayoutCache.MAX_PRECOMPUTED_CHARS / ("Item 10000".length() + 1);
+        TextLayoutCache.clear();
+        TextPaint paint = PrecomputedLabelView.createPaint(context);
+        TextLayoutCache.precompute(texts, paint, 300);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (TextLayoutCache.get(texts.get(leading - 1), paint, 300) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(TextLayoutCache.get(texts.get(leading - 1), paint, 300) != null);
+        assertTrue(TextLayoutCache.get(texts.get(0), paint, 300) != null);
+        assertNull(TextLayoutCache.get(texts.get(leading), paint, 300));
+    }
+
+    @Test
+    public void obtain_givesEachCachedLayoutAPaintOfItsOwn() {
+        TextLayoutCache.clear();
+        TextPaint paint = PrecomputedLabelView.createPaint(context);
+        StaticLayout first = TextLayoutCache.obtain("First", paint, 300);
+        StaticLayout second = TextLayoutCache.obtain("Second", paint, 300);
+
+        assertNotSame(paint, first.getPaint());
+        assertNotSame(first.getPaint(), second.getPaint());
+        assertSame(first, TextLayoutCache.obtain("First", paint, 300));
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.sdw8001.materialspinner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The page lookups of {@link PagedSpinnerAdapter}, one per row bound: a hit
+ * marks the page as used, a miss stores the page once loaded. Each operation
+ * binds a batch of rows, scrolling through the list or jumping around it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PageCacheBenchmark {
+
+    private static final int BATCH = 1024;
+    private static final int PAGE_SIZE = 50;
+    private static final int COUNT = 200000;
+    private static final List<String> PAGE = Collections.nCopies(PAGE_SIZE, "Item");
+
+    //The minimum, the default and a large cache
+    @Param({"5", "8", "32"})
+    public int maxPages;
+
+    @Param({"scroll", "jump"})
+    public String pattern;
+
+    private int[] positions;
+    private PageCache<String> pages;
+
+    @Setup
+    public void setUp() {
+        //Fixed seed, the same rows for every run
+        Random random = new Random(42);
+        positions = new int[BATCH];
+        int position = random.nextInt(COUNT);
+        for (int i = 0; i < BATCH; i++) {
+            position = "scroll".equals(pattern) ? (position + 1) % COUNT : random.nextInt(COUNT);
+            positions[i] = position;
+        }
+        pages = new PageCache<>(maxPages);
+    }
+
+    @Benchmark
+    public int bindRows() {
+        int hits = 0;
+        for (int position : positions) {
+            int page = position / PAGE_SIZE;
+            if (pages.get(page) != null) {
+                hits++;
+            } else {
+                pages.put(page, PAGE, pages.tick());
+            }
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.sdw8001.materialspinner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building and querying the search index of a searchable spinner, over
+ * generated labels of two or three words.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SpinnerSearchIndexBenchmark {
+
+    private static final String[] SYLLABLES = {"ber", "lin", "ma", "dri", "to", "ky", "o", "par", "is", "ro", "me", "san", "ti", "a", "go", "lon", "don"};
+    private static final int MAX_RESULTS = 100;
+    //What the user types, one keystroke at a time
+    private static final String[] KEYSTROKES = {"b", "be", "ber", "berl", "berli", "berlin"};
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private List<String> labels;
+    private SpinnerSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        //Fixed seed, the same labels for every run
+        Random random = new Random(42);
+        labels = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int words = 2 + random.nextInt(2);
+            StringBuilder label = new StringBuilder();
+            for (int w = 0; w < words; w++) {
+                if (w > 0) {
+                    label.append(' ');
+                }
+                int syllables = 1 + random.nextInt(3);
+                for (int s = 0; s < syllables; s++) {
+                    label.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+                }
+            }
+            labels.add(label.toString());
+        }
+        index = SpinnerSearchIndex.build(labels);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SpinnerSearchIndex build() {
+        return SpinnerSearchIndex.build(labels);
+    }
+
+    @Benchmark
+    public SpinnerSearchIndex.Result searchPrefix() {
+        return index.search("berlin", MAX_RESULTS);
+    }
+
+    @Benchmark
+    public SpinnerSearchIndex.Result searchFuzzy() {
+        //A typo, no label starts with it
+        return index.search("brelin", MAX_RESULTS);
+    }
+
+    @Benchmark
+    public SpinnerSearchIndex.Result typeQuery() {
+        //Every keystroke refines the previous result, as the search dialog does
+        SpinnerSearchIndex.Result result = null;
+        for (String query : KEYSTROKES) {
+            result = index.refine(result, query, MAX_RESULTS);
+        }
+        return result;
+    }
+}
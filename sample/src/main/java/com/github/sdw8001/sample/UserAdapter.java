@@ -1,42 +1,56 @@
 package com.github.sdw8001.sample;
 
 import android.content.Context;
+import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.ArrayAdapter;
 import android.widget.TextView;
 
-import java.util.Collections;
+import com.github.sdw8001.materialspinner.ChangeDetectingSpinnerAdapter;
+
 import java.util.List;
 
 /**
  * Created by sdw80 on 2016-08-24.
  * User Adapter
  */
-public class UserAdapter extends ArrayAdapter<User> {
+public class UserAdapter extends ChangeDetectingSpinnerAdapter<User> {
+
+    private static final ItemCallback<User> USER_CALLBACK = new ItemCallback<User>() {
+        @Override
+        public boolean areItemsTheSame(User oldItem, User newItem) {
+            return oldItem.getId() == newItem.getId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(User oldItem, User newItem) {
+            return TextUtils.equals(oldItem.getName(), newItem.getName());
+        }
+
+        @Override
+        public long getItemId(User item) {
+            return item.getId();
+        }
+    };
 
-    private List<User> items;
     private final LayoutInflater layoutInflater;
     private int viewResourceId;
     private UserViewHolder viewHolder;
 
     public UserAdapter(Context context, int resource) {
-        super(context, resource);
+        super(USER_CALLBACK);
         this.viewResourceId = resource;
         this.layoutInflater = (LayoutInflater) context.getSystemService(Context.LAYOUT_INFLATER_SERVICE);
-        this.items = Collections.emptyList();
     }
 
     public void setItems(List<User> items){
-        this.clear();
-        this.items = items;
-        this.notifyDataSetChanged();
+        submitList(items);
     }
 
     @Override
     public View getView(int position, View convertView, ViewGroup parent) {
-        final User item = this.items.get(position);
+        final User item = getItem(position);
         if (convertView == null) {
             convertView = this.layoutInflater.inflate(viewResourceId, parent, false);
             viewHolder = new UserViewHolder(convertView);
@@ -52,7 +66,7 @@ public class UserAdapter extends ArrayAdapter<User> {
 
     @Override
     public View getDropDownView(int position, View convertView, ViewGroup parent) {
-        final User item = this.items.get(position);
+        final User item = getItem(position);
         if (convertView == null) {
             convertView = this.layoutInflater.inflate(viewResourceId, parent, false);
             viewHolder = new UserViewHolder(convertView);